@@ -0,0 +1,94 @@
+package cn.worken.gateway.benchmark;
+
+import cn.worken.gateway.auth.AuthenticationInfoCache;
+import cn.worken.gateway.cache.CacheRegistry;
+import cn.worken.gateway.config.constant.ReqContextConstant;
+import cn.worken.gateway.filter.AuthenticationRetrieveFilter;
+import cn.worken.gateway.identity.IdentitySigner;
+import cn.worken.gateway.resource.OpenAPIListServerWebExchangeMatcher;
+import cn.worken.gateway.resource.ResourceControl;
+import cn.worken.gateway.resource.ResourceControlProperties;
+import cn.worken.gateway.resource.manage.WhiteListServerWebExchangeMatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+/**
+ * 用户信息解析及网关请求头写入 , 用户信息缓存已命中 ; baseline 只创建请求上下文 , 用于扣除 mock 请求本身的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationRetrieveBenchmark {
+
+    private AuthenticationRetrieveFilter filter;
+    private Jwt jwt;
+
+    @Setup
+    public void setUp() {
+        ResourceControl resourceControl = new ResourceControl(new ResourceControlProperties(new JdbcTemplate()));
+        WhiteListServerWebExchangeMatcher whiteListMatcher = new WhiteListServerWebExchangeMatcher();
+        ReflectionTestUtils.setField(whiteListMatcher, "resourceControl", resourceControl);
+        AuthenticationInfoCache authenticationInfoCache = new AuthenticationInfoCache(10000, 600,
+            new DefaultListableBeanFactory().getBeanProvider(IdentitySigner.class),
+            new CacheRegistry(new SimpleMeterRegistry()));
+        filter = new AuthenticationRetrieveFilter(whiteListMatcher, authenticationInfoCache,
+            new OpenAPIListServerWebExchangeMatcher(resourceControl));
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("user_id", 1001);
+        claims.put("user_name", "user_1");
+        claims.put("client_id", "com_client");
+        claims.put("com_id", "0");
+        claims.put("name", "用户1");
+        Instant now = Instant.now();
+        jwt = new Jwt("benchmark-token", now, now.plusSeconds(86400), Collections.singletonMap("alg", "RS256"),
+            claims);
+    }
+
+    @Benchmark
+    public MockServerWebExchange baseline() {
+        return exchange();
+    }
+
+    @Benchmark
+    public void buildHeaders(Blackhole blackhole) {
+        filter.filter(exchange(), forwarded -> {
+            blackhole.consume(forwarded.getRequest().getHeaders());
+            return Mono.empty();
+        }).block();
+    }
+
+    private MockServerWebExchange exchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/order/list")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer benchmark-token"));
+        exchange.getAttributes().put(ReqContextConstant.SECURITY_INFO_IN_REQ, jwt);
+        exchange.getAttributes().put(ReqContextConstant.SECURITY_IS_USER, true);
+        exchange.getAttributes().put(ReqContextConstant.X_IDENTIFIES, "user_1");
+        return exchange;
+    }
+}
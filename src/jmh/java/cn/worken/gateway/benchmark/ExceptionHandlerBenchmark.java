@@ -0,0 +1,62 @@
+package cn.worken.gateway.benchmark;
+
+import cn.worken.gateway.config.ExceptionLogSampler;
+import cn.worken.gateway.config.GatewayWebExceptionHandler;
+import cn.worken.gateway.config.constant.GatewayCode;
+import cn.worken.gateway.config.exception.GatewayException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+/**
+ * 全局异常处理渲染 json 响应 , 日志采样后只有前几次打印堆栈
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExceptionHandlerBenchmark {
+
+    private GatewayWebExceptionHandler handler;
+    private GatewayException accessDeny;
+    private RuntimeException unknown;
+
+    @Setup
+    public void setUp() {
+        ServerCodecConfigurer codecConfigurer = ServerCodecConfigurer.create();
+        handler = new GatewayWebExceptionHandler(new ExceptionLogSampler(5, 2048));
+        handler.setMessageWriters(codecConfigurer.getWriters());
+        handler.setMessageReaders(codecConfigurer.getReaders());
+        accessDeny = new GatewayException(GatewayCode.ACCESS_DENY);
+        unknown = new IllegalStateException("benchmark");
+    }
+
+    @Benchmark
+    public MockServerWebExchange gatewayException() {
+        return handle(accessDeny);
+    }
+
+    @Benchmark
+    public MockServerWebExchange unknownException() {
+        return handle(unknown);
+    }
+
+    private MockServerWebExchange handle(Throwable ex) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/order/list"));
+        handler.handle(exchange, ex).block();
+        return exchange;
+    }
+}
@@ -0,0 +1,70 @@
+package cn.worken.gateway.benchmark;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+
+/**
+ * RS256 jwt 解析及验签 , token 内容与认证服务签发的用户 token 一致
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtDecodeBenchmark {
+
+    private NimbusReactiveJwtDecoder decoder;
+    private String token;
+
+    @Setup
+    public void setUp() throws NoSuchAlgorithmException, JOSEException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+            .claim("user_id", 1001)
+            .claim("user_name", "user_1")
+            .claim("client_id", "com_client")
+            .claim("com_id", "0")
+            .claim("name", "用户1")
+            .claim("scope", Arrays.asList("read", "write"))
+            .claim("expires_in", 259199)
+            .jwtID(UUID.randomUUID().toString())
+            .expirationTime(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)))
+            .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.RS256), claims);
+        jwt.sign(new RSASSASigner(keyPair.getPrivate()));
+        token = jwt.serialize();
+        decoder = new NimbusReactiveJwtDecoder((RSAPublicKey) keyPair.getPublic());
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        return decoder.decode(token).block();
+    }
+}
@@ -0,0 +1,72 @@
+package cn.worken.gateway.benchmark;
+
+import cn.worken.gateway.resource.ResourceControl;
+import cn.worken.gateway.resource.ResourceControlProperties;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 白名单匹配 , 白名单中约 3/4 为精确路径 1/4 为 ant 表达式
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResourceControlBenchmark {
+
+    @Param({"20", "200", "1000"})
+    private int size;
+
+    private ResourceControl resourceControl;
+    private String exactHit;
+    private String patternHit;
+    private String miss;
+
+    @Setup
+    public void setUp() {
+        Set<String> whiteList = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            if (i % 4 == 0) {
+                whiteList.add("/service-" + i + "/public/**");
+            } else {
+                whiteList.add("/service-" + i + "/api/v1/open/item-" + i);
+            }
+        }
+        ResourceControlProperties properties = new ResourceControlProperties(new JdbcTemplate());
+        properties.setWhiteApiList(whiteList);
+        resourceControl = new ResourceControl(properties);
+        exactHit = "/service-" + (size - 1) + "/api/v1/open/item-" + (size - 1);
+        patternHit = "/service-" + (size - 4) + "/public/static/logo.png";
+        miss = "/order-service/api/v1/orders/1024";
+    }
+
+    @Benchmark
+    public boolean exactHit() {
+        return resourceControl.isWhiteApi(exactHit);
+    }
+
+    @Benchmark
+    public boolean patternHit() {
+        return resourceControl.isWhiteApi(patternHit);
+    }
+
+    @Benchmark
+    public boolean miss() {
+        return resourceControl.isWhiteApi(miss);
+    }
+}
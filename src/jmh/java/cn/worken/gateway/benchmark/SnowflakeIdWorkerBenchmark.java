@@ -0,0 +1,46 @@
+package cn.worken.gateway.benchmark;
+
+import cn.worken.gateway.util.SnowflakeIdWorker;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * id 生成 , 单线程及多线程争用同一个 worker
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnowflakeIdWorkerBenchmark {
+
+    private SnowflakeIdWorker idWorker;
+
+    @Setup
+    public void setUp() {
+        idWorker = new SnowflakeIdWorker(1, 1);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Long single() {
+        return idWorker.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Long contended() {
+        return idWorker.nextId();
+    }
+}
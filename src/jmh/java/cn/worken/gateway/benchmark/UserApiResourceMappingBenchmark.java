@@ -0,0 +1,75 @@
+package cn.worken.gateway.benchmark;
+
+import cn.worken.gateway.cache.CacheRegistry;
+import cn.worken.gateway.resource.adapter.user.UserApiResource;
+import cn.worken.gateway.resource.adapter.user.UserApiResourceMapping;
+import com.alibaba.fastjson.JSONObject;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 接口路径到权限编码的映射 , 精确路径 , rest 路径模板 , 未配置的接口
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserApiResourceMappingBenchmark {
+
+    private static final String SERVICE = "order-service";
+
+    /**
+     * 服务接口数 , 其中 1/5 为路径模板
+     */
+    @Param({"50", "500"})
+    private int apis;
+
+    private UserApiResourceMapping mapping;
+    private String exact;
+    private String template;
+
+    @Setup
+    public void setUp() {
+        mapping = new UserApiResourceMapping(event -> {
+        }, new CacheRegistry(new SimpleMeterRegistry()));
+        JSONObject content = new JSONObject();
+        for (int i = 0; i < apis; i++) {
+            if (i % 5 == 0) {
+                content.put("/api/v1/resource-" + i + "/{id}/detail", "CODE_" + i);
+            } else {
+                content.put("/api/v1/resource-" + i + "/list", "CODE_" + i);
+            }
+        }
+        mapping.updateServiceApiMapping(SERVICE, content.toJSONString());
+        exact = "/api/v1/resource-" + (apis - 1) + "/list";
+        template = "/api/v1/resource-" + (apis - 5) + "/1024/detail";
+    }
+
+    @Benchmark
+    public UserApiResource exactHit() {
+        return mapping.getUserApiResource(SERVICE, exact);
+    }
+
+    @Benchmark
+    public UserApiResource templateHit() {
+        return mapping.getUserApiResource(SERVICE, template);
+    }
+
+    @Benchmark
+    public UserApiResource miss() {
+        return mapping.getUserApiResource(SERVICE, "/api/v2/unknown/1024");
+    }
+}
@@ -0,0 +1,52 @@
+package cn.worken.gateway.loadtest;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 统计网关线程分配的内存 , 压测及替身线程 (loadtest- 前缀) 不计入
+ * <p>
+ * 压测期间结束的线程分配的内存无法统计 , 网关线程基本都是常驻线程
+ */
+public class AllocationMeter {
+
+    private static final String EXCLUDED_PREFIX = "loadtest-";
+
+    private final com.sun.management.ThreadMXBean threadMXBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private Map<Long, Long> baseline = new HashMap<>();
+
+    public boolean isSupported() {
+        return threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled();
+    }
+
+    public void start() {
+        baseline = snapshot();
+    }
+
+    /**
+     * start 之后网关线程分配的字节数
+     */
+    public long allocatedBytes() {
+        long total = 0;
+        for (Map.Entry<Long, Long> entry : snapshot().entrySet()) {
+            total += entry.getValue() - baseline.getOrDefault(entry.getKey(), 0L);
+        }
+        return total;
+    }
+
+    private Map<Long, Long> snapshot() {
+        Map<Long, Long> result = new HashMap<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith(EXCLUDED_PREFIX) || thread == Thread.currentThread()) {
+                continue;
+            }
+            long bytes = threadMXBean.getThreadAllocatedBytes(thread.getId());
+            if (bytes > 0) {
+                result.put(thread.getId(), bytes);
+            }
+        }
+        return result;
+    }
+}
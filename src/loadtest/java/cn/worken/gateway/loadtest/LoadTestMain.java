@@ -0,0 +1,99 @@
+package cn.worken.gateway.loadtest;
+
+import cn.worken.gateway.GatewayApplication;
+import cn.worken.gateway.loadtest.TrafficDriver.Result;
+import cn.worken.gateway.resource.adapter.user.UserApiResourceMapping;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.SpringApplication;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 离线压测入口 , 网关连接本地替身启动 : 内嵌 redis , h2 , 静态服务发现 , 下游服务及认证服务替身
+ * <p>
+ * mvn -P loadtest -DskipTests verify -Dloadtest.args="duration=60 concurrency=64 min-rps=2000"
+ */
+public class LoadTestMain {
+
+    private static final String SERVICE = "user-service";
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = new LoadTestOptions(args);
+        System.out.println("压测参数 " + options);
+        TestTokens tokens = new TestTokens();
+        boolean passed;
+        try (LocalStandIns standIns = new LocalStandIns(options.getUpstreamLatencyMs(), tokens)) {
+            gatewayProperties(standIns, tokens).forEach(System::setProperty);
+            try (ConfigurableApplicationContext context = new SpringApplication(GatewayApplication.class).run()) {
+                prepare(context, options);
+                int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                try (TrafficDriver driver = new TrafficDriver(options, port, tokens)) {
+                    System.out.println("预热 " + options.getWarmup() + " 秒");
+                    driver.run(options.getWarmup());
+                    AllocationMeter allocationMeter = new AllocationMeter();
+                    allocationMeter.start();
+                    System.out.println("压测 " + options.getDuration() + " 秒");
+                    Result result = driver.run(options.getDuration());
+                    long allocated = allocationMeter.isSupported() ? allocationMeter.allocatedBytes() : -1;
+                    LoadTestReport report = new LoadTestReport(options, result, allocated);
+                    System.out.println(report.write(options.getReportFile()));
+                    passed = report.passed();
+                }
+            }
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static Map<String, String> gatewayProperties(LocalStandIns standIns, TestTokens tokens) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        // 不连接 nacos , 使用静态服务发现及 ribbon 服务列表
+        properties.put("spring.cloud.nacos.config.enabled", "false");
+        properties.put("spring.cloud.nacos.discovery.enabled", "false");
+        properties.put("ribbon.nacos.enabled", "false");
+        String upstream = "127.0.0.1:" + standIns.getUpstreamPort();
+        String authServer = "127.0.0.1:" + standIns.getAuthServerPort();
+        properties.put("spring.cloud.discovery.client.simple.instances." + SERVICE + "[0].uri", "http://" + upstream);
+        properties.put("spring.cloud.discovery.client.simple.instances.auth-server[0].uri", "http://" + authServer);
+        properties.put(SERVICE + ".ribbon.listOfServers", upstream);
+        properties.put("auth-server.ribbon.listOfServers", authServer);
+        properties.put("server.port", "0");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:gateway;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.initialization-mode", "always");
+        properties.put("spring.datasource.schema", "classpath:loadtest/schema.sql");
+        properties.put("spring.datasource.data", "classpath:loadtest/data.sql");
+        properties.put("spring.redis.host", "127.0.0.1");
+        properties.put("spring.redis.port", String.valueOf(standIns.getRedisPort()));
+        properties.put("resource.version", "1");
+        properties.put("gateway.jwt.keys.default", tokens.getPublicKey());
+        properties.put("gateway.sentinel.backup-file", "target/loadtest-sentinel-rules.json");
+        properties.put("logging.file.name", "target/loadtest-gateway.log");
+        properties.put("logging.level.root", "WARN");
+        return properties;
+    }
+
+    /**
+     * 写入用户权限 , 触发并等待下游服务接口权限编码加载
+     */
+    private static void prepare(ConfigurableApplicationContext context, LoadTestOptions options)
+        throws InterruptedException {
+        StringRedisTemplate redisTemplate = context.getBean(StringRedisTemplate.class);
+        for (int i = 1; i <= options.getUsers(); i++) {
+            redisTemplate.opsForSet().add("oauth:res:" + i, "ORDER_VIEW", "ORDER_LIST");
+        }
+        context.publishEvent(new HeartbeatEvent(LoadTestMain.class, 1L));
+        UserApiResourceMapping mapping = context.getBean(UserApiResourceMapping.class);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (mapping.getUserApiResource(SERVICE, "/orders/list") == null) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException(SERVICE + " 接口权限编码未加载");
+            }
+            TimeUnit.MILLISECONDS.sleep(500);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package cn.worken.gateway.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * 压测参数 , 命令行 key=value
+ * <ul>
+ * <li>duration / warmup 压测及预热秒数</li>
+ * <li>concurrency 并发请求数</li>
+ * <li>users / clients 不同 token 数 , sentinel 默认按用户限流 , 用户过少时会被限流</li>
+ * <li>mix 用户 , client , 白名单请求比例</li>
+ * <li>upstream-latency-ms 下游服务延迟</li>
+ * <li>min-rps / max-p99-ms / max-error-ratio 回归阈值 , 不满足时退出码为 1</li>
+ * </ul>
+ */
+@Getter
+public class LoadTestOptions {
+
+    private final int duration;
+    private final int warmup;
+    private final int concurrency;
+    private final int users;
+    private final int clients;
+    private final int userWeight;
+    private final int clientWeight;
+    private final int whitelistWeight;
+    private final long upstreamLatencyMs;
+    private final double minRps;
+    private final double maxP99Ms;
+    private final double maxErrorRatio;
+    private final String reportFile;
+
+    public LoadTestOptions(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int index = arg.indexOf('=');
+            if (index > 0) {
+                values.put(arg.substring(0, index).trim(), arg.substring(index + 1).trim());
+            }
+        }
+        duration = Integer.parseInt(values.getOrDefault("duration", "60"));
+        warmup = Integer.parseInt(values.getOrDefault("warmup", "15"));
+        concurrency = Integer.parseInt(values.getOrDefault("concurrency", "64"));
+        users = Integer.parseInt(values.getOrDefault("users", "2000"));
+        clients = Math.min(Integer.parseInt(values.getOrDefault("clients", "200")), 10000);
+        String[] mix = values.getOrDefault("mix", "70,20,10").split(",");
+        userWeight = Integer.parseInt(mix[0].trim());
+        clientWeight = Integer.parseInt(mix[1].trim());
+        whitelistWeight = Integer.parseInt(mix[2].trim());
+        upstreamLatencyMs = Long.parseLong(values.getOrDefault("upstream-latency-ms", "5"));
+        minRps = Double.parseDouble(values.getOrDefault("min-rps", "0"));
+        maxP99Ms = Double.parseDouble(values.getOrDefault("max-p99-ms", "0"));
+        maxErrorRatio = Double.parseDouble(values.getOrDefault("max-error-ratio", "0.01"));
+        reportFile = values.getOrDefault("report-file", "target/loadtest-report.json");
+    }
+
+    @Override
+    public String toString() {
+        return "duration=" + duration + " warmup=" + warmup + " concurrency=" + concurrency + " users=" + users
+            + " clients=" + clients + " mix=" + userWeight + "," + clientWeight + "," + whitelistWeight
+            + " upstream-latency-ms=" + upstreamLatencyMs;
+    }
+}
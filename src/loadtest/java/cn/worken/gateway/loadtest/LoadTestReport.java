@@ -0,0 +1,95 @@
+package cn.worken.gateway.loadtest;
+
+import cn.worken.gateway.loadtest.TrafficDriver.Kind;
+import cn.worken.gateway.loadtest.TrafficDriver.Result;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+
+/**
+ * 压测报告 , 输出到控制台及 json 文件 , 并按阈值判断是否回归
+ */
+public class LoadTestReport {
+
+    private final Map<String, Object> report = new LinkedHashMap<>();
+    private final List<String> violations = new ArrayList<>();
+
+    public LoadTestReport(LoadTestOptions options, Result result, long allocatedBytes) {
+        double seconds = result.getElapsedNanos() / 1e9;
+        Map<Kind, Histogram> histograms = result.histograms();
+        Histogram total = new Histogram(3);
+        Map<String, Object> kinds = new LinkedHashMap<>();
+        histograms.forEach((kind, histogram) -> {
+            total.add(histogram);
+            kinds.put(kind.name().toLowerCase(), latency(histogram));
+        });
+        long requests = total.getTotalCount();
+        long ok = result.getOutcomes().containsKey("ok") ? result.getOutcomes().get("ok").sum() : 0;
+        double rps = requests / seconds;
+        double errorRatio = requests == 0 ? 1 : (requests - ok) / (double) requests;
+
+        report.put("options", options.toString());
+        report.put("seconds", round(seconds));
+        report.put("requests", requests);
+        report.put("throughput", round(rps));
+        report.put("errorRatio", round(errorRatio));
+        report.put("latencyMs", latency(total));
+        report.put("latencyMsByKind", kinds);
+        Map<String, Long> outcomes = new LinkedHashMap<>();
+        result.getOutcomes().forEach((outcome, count) -> outcomes.put(outcome, count.sum()));
+        report.put("outcomes", outcomes);
+        if (allocatedBytes >= 0) {
+            report.put("allocatedBytesPerRequest", requests == 0 ? 0 : allocatedBytes / requests);
+            report.put("allocationRateMbPerSecond", round(allocatedBytes / seconds / 1024 / 1024));
+        }
+
+        double p99 = total.getValueAtPercentile(99) / 1000.0;
+        if (options.getMinRps() > 0 && rps < options.getMinRps()) {
+            violations.add("throughput " + round(rps) + " < " + options.getMinRps());
+        }
+        if (options.getMaxP99Ms() > 0 && p99 > options.getMaxP99Ms()) {
+            violations.add("p99 " + p99 + "ms > " + options.getMaxP99Ms() + "ms");
+        }
+        if (errorRatio > options.getMaxErrorRatio()) {
+            violations.add("error ratio " + round(errorRatio) + " > " + options.getMaxErrorRatio());
+        }
+        report.put("violations", violations);
+    }
+
+    static Map<String, Object> latency(Histogram histogram) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", histogram.getTotalCount());
+        result.put("p50", histogram.getValueAtPercentile(50) / 1000.0);
+        result.put("p99", histogram.getValueAtPercentile(99) / 1000.0);
+        result.put("p999", histogram.getValueAtPercentile(99.9) / 1000.0);
+        result.put("max", histogram.getMaxValue() / 1000.0);
+        return result;
+    }
+
+    static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    public boolean passed() {
+        return violations.isEmpty();
+    }
+
+    public String write(String file) throws IOException {
+        String json = JSON.toJSONString(report, SerializerFeature.PrettyFormat);
+        Path path = Paths.get(file);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.write(path, json.getBytes(StandardCharsets.UTF_8));
+        return json;
+    }
+}
@@ -0,0 +1,100 @@
+package cn.worken.gateway.loadtest;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+import redis.embedded.RedisServer;
+
+/**
+ * 本地替身 : 内嵌 redis , 下游服务 user-service , 认证服务 auth-server
+ * <p>
+ * 替身使用独立的事件循环线程 (loadtest- 前缀) , 不计入网关的内存分配
+ */
+@Slf4j
+public class LocalStandIns implements AutoCloseable {
+
+    /**
+     * 下游服务接口权限编码 , 由 ServiceResourceFresher 从 /api/export 加载
+     */
+    static final String API_EXPORT = "{\"/orders/{id}\":\"ORDER_VIEW\",\"/orders/list\":\"ORDER_LIST\"}";
+    static final String UPSTREAM_BODY = "{\"data\":\"ok\"}";
+
+    private final LoopResources loops = LoopResources.create("loadtest-stub", 2, true);
+    private final RedisServer redisServer;
+    private final int redisPort;
+    private final DisposableServer upstream;
+    private final DisposableServer authServer;
+
+    public LocalStandIns(long upstreamLatencyMs, TestTokens tokens) throws IOException {
+        redisPort = freePort();
+        redisServer = new RedisServer(redisPort);
+        redisServer.start();
+        Duration latency = Duration.ofMillis(upstreamLatencyMs);
+        upstream = HttpServer.create().host("127.0.0.1").port(0).runOn(loops)
+            .handle((request, response) -> {
+                if (request.uri().startsWith("/api/export")) {
+                    return response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                        .sendString(Mono.just(API_EXPORT));
+                }
+                Mono<String> body = Mono.just(UPSTREAM_BODY);
+                return response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                    .sendString(latency.isZero() ? body : body.delayElement(latency));
+            })
+            .bindNow();
+        authServer = HttpServer.create().host("127.0.0.1").port(0).runOn(loops)
+            .handle((request, response) -> {
+                if (!request.uri().startsWith("/oauth/token")) {
+                    return response.status(HttpResponseStatus.NOT_FOUND).send();
+                }
+                // 刷新 token 及 /uaa/login 都返回新的用户 token
+                return response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                    .sendString(request.receive().then(Mono.fromCallable(() -> tokenResponse(tokens))));
+            })
+            .bindNow();
+        log.info("本地替身已启动 redis:{} user-service:{} auth-server:{}", redisPort, upstream.port(),
+            authServer.port());
+    }
+
+    private static String tokenResponse(TestTokens tokens) {
+        String token = tokens.user(1);
+        return "{\"access_token\":\"" + token + "\",\"token_type\":\"bearer\",\"refresh_token\":\"" + token
+            + "\",\"expires_in\":259199,\"scope\":\"read write\"}";
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    public int getRedisPort() {
+        return redisPort;
+    }
+
+    public int getUpstreamPort() {
+        return upstream.port();
+    }
+
+    public int getAuthServerPort() {
+        return authServer.port();
+    }
+
+    @Override
+    public void close() {
+        upstream.disposeNow();
+        authServer.disposeNow();
+        loops.dispose();
+        try {
+            redisServer.stop();
+        } catch (Exception e) {
+            log.warn("停止内嵌 redis 失败 : {}", e.getMessage());
+        }
+    }
+}
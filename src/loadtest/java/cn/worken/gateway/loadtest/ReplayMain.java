@@ -0,0 +1,21 @@
+package cn.worken.gateway.loadtest;
+
+/**
+ * 采样流量回放入口 , 采样文件由网关 gateway.capture 生成 , 回放到指定的网关实例
+ * <p>
+ * mvn -P loadtest -DskipTests verify -Dloadtest.main=cn.worken.gateway.loadtest.ReplayMain
+ * -Dloadtest.args="file=gateway-capture.bin target=http://127.0.0.1:9000 speedup=4 user-tokens=users.txt
+ * client-tokens=clients.txt"
+ */
+public class ReplayMain {
+
+    public static void main(String[] args) throws Exception {
+        ReplayOptions options = new ReplayOptions(args);
+        System.out.println("回放参数 " + options);
+        try (TrafficReplayer replayer = new TrafficReplayer(options)) {
+            ReplayReport report = new ReplayReport(options, replayer.run());
+            System.out.println(report.write(options.getReportFile()));
+        }
+        System.exit(0);
+    }
+}
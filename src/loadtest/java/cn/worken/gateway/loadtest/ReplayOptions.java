@@ -0,0 +1,59 @@
+package cn.worken.gateway.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * 回放参数 , 命令行 key=value
+ * <ul>
+ * <li>file 网关 gateway.capture 生成的采样文件</li>
+ * <li>target 网关地址 , 如 http://127.0.0.1:9000</li>
+ * <li>speedup 加速倍数 , 2 表示以两倍速率回放</li>
+ * <li>duration 只回放采样文件前 duration 秒 , 0 表示全部</li>
+ * <li>max-in-flight 最大并发请求数 , 达到后等待 , 等待时间计入延迟</li>
+ * <li>user-tokens / client-tokens token 文件 , 每行一个 , 按采样中的用户标识分配 , 保持用户分布</li>
+ * </ul>
+ */
+@Getter
+public class ReplayOptions {
+
+    private final String file;
+    private final String target;
+    private final double speedup;
+    private final int duration;
+    private final int maxInFlight;
+    private final String userTokens;
+    private final String clientTokens;
+    private final String reportFile;
+
+    public ReplayOptions(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int index = arg.indexOf('=');
+            if (index > 0) {
+                values.put(arg.substring(0, index).trim(), arg.substring(index + 1).trim());
+            }
+        }
+        file = values.get("file");
+        target = values.get("target");
+        if (file == null || target == null) {
+            throw new IllegalArgumentException("缺少参数 file=采样文件 target=网关地址");
+        }
+        speedup = Double.parseDouble(values.getOrDefault("speedup", "1"));
+        if (speedup <= 0) {
+            throw new IllegalArgumentException("speedup 必须大于 0");
+        }
+        duration = Integer.parseInt(values.getOrDefault("duration", "0"));
+        maxInFlight = Integer.parseInt(values.getOrDefault("max-in-flight", "1024"));
+        userTokens = values.get("user-tokens");
+        clientTokens = values.get("client-tokens");
+        reportFile = values.getOrDefault("report-file", "target/replay-report.json");
+    }
+
+    @Override
+    public String toString() {
+        return "file=" + file + " target=" + target + " speedup=" + speedup + " duration=" + duration
+            + " max-in-flight=" + maxInFlight;
+    }
+}
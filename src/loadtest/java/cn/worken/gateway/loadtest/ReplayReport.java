@@ -0,0 +1,55 @@
+package cn.worken.gateway.loadtest;
+
+import cn.worken.gateway.capture.TokenClass;
+import cn.worken.gateway.loadtest.TrafficReplayer.Result;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+
+/**
+ * 回放报告 , 输出到控制台及 json 文件 , 延迟按 token 类型统计
+ */
+public class ReplayReport {
+
+    private final Map<String, Object> report = new LinkedHashMap<>();
+
+    public ReplayReport(ReplayOptions options, Result result) {
+        double seconds = result.getElapsedNanos() / 1e9;
+        Histogram total = new Histogram(3);
+        Map<String, Object> classes = new LinkedHashMap<>();
+        for (Map.Entry<TokenClass, Histogram> entry : result.histograms().entrySet()) {
+            total.add(entry.getValue());
+            if (entry.getValue().getTotalCount() > 0) {
+                classes.put(entry.getKey().name().toLowerCase(), LoadTestReport.latency(entry.getValue()));
+            }
+        }
+        report.put("options", options.toString());
+        report.put("seconds", LoadTestReport.round(seconds));
+        report.put("requests", total.getTotalCount());
+        report.put("skipped", result.getSkipped());
+        report.put("throughput", LoadTestReport.round(total.getTotalCount() / seconds));
+        report.put("maxLagMs", LoadTestReport.round(result.getMaxLagNanos() / 1e6));
+        report.put("latencyMs", LoadTestReport.latency(total));
+        report.put("latencyMsByTokenClass", classes);
+        Map<String, Long> outcomes = new LinkedHashMap<>();
+        result.getOutcomes().forEach((outcome, count) -> outcomes.put(outcome, count.sum()));
+        report.put("outcomes", outcomes);
+    }
+
+    public String write(String file) throws IOException {
+        String json = JSON.toJSONString(report, SerializerFeature.PrettyFormat);
+        Path path = Paths.get(file);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.write(path, json.getBytes(StandardCharsets.UTF_8));
+        return json;
+    }
+}
@@ -0,0 +1,80 @@
+package cn.worken.gateway.loadtest;
+
+import cn.worken.gateway.util.RSAUtils;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 压测 token , 使用临时生成的 rsa 密钥签名 , 公钥通过 gateway.jwt.keys.default 配置给网关
+ */
+public class TestTokens {
+
+    private static final long EXPIRES_IN = TimeUnit.DAYS.toSeconds(3);
+
+    private final String publicKey;
+    private final JWSSigner signer;
+
+    public TestTokens() throws NoSuchAlgorithmException, InvalidKeySpecException {
+        Map<String, String> keys = RSAUtils.createKeys(2048);
+        this.publicKey = keys.get("publicKey");
+        this.signer = new RSASSASigner(RSAUtils.getPrivateKey(keys.get("privateKey")));
+    }
+
+    public String getPublicKey() {
+        return publicKey;
+    }
+
+    /**
+     * 平台用户 token , 与认证服务签发的格式一致
+     */
+    public String user(int userId) {
+        return sign(base()
+            .claim("user_id", userId)
+            .claim("user_name", "user_" + userId)
+            .claim("client_id", "com_client")
+            .claim("com_id", String.valueOf(userId % 50))
+            .claim("name", "压测用户" + userId)
+            .claim("scope", Arrays.asList("read", "write"))
+            .build());
+    }
+
+    /**
+     * client 凭证 token , 只有 client_id 和 com_id
+     */
+    public String client(int clientIndex) {
+        return sign(base()
+            .claim("client_id", "client-" + clientIndex)
+            .claim("com_id", String.valueOf(clientIndex % 50))
+            .claim("scope", Arrays.asList("read", "write"))
+            .build());
+    }
+
+    private JWTClaimsSet.Builder base() {
+        return new JWTClaimsSet.Builder()
+            .jwtID(UUID.randomUUID().toString())
+            .claim("expires_in", EXPIRES_IN)
+            .expirationTime(new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(EXPIRES_IN)));
+    }
+
+    private String sign(JWTClaimsSet claims) {
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.RS256), claims);
+        try {
+            jwt.sign(signer);
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+        return jwt.serialize();
+    }
+}
@@ -0,0 +1,180 @@
+package cn.worken.gateway.loadtest;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * 闭环压测 , concurrency 个请求并发执行 , 每个请求完成后立即发起下一个
+ */
+public class TrafficDriver implements AutoCloseable {
+
+    /**
+     * 请求类型
+     */
+    public enum Kind {
+        /**
+         * 平台用户 , 校验 redis 中的权限编码
+         */
+        USER,
+        /**
+         * client , 校验数据库中的开放接口授权
+         */
+        CLIENT,
+        /**
+         * 白名单 , 不鉴权
+         */
+        WHITELIST
+    }
+
+    private final LoadTestOptions options;
+    private final List<String> userTokens;
+    private final List<String> clientTokens;
+    private final LoopResources loops;
+    private final ConnectionProvider connectionProvider;
+    private final HttpClient client;
+
+    public TrafficDriver(LoadTestOptions options, int gatewayPort, TestTokens tokens) {
+        this.options = options;
+        this.userTokens = new ArrayList<>(options.getUsers());
+        for (int i = 1; i <= options.getUsers(); i++) {
+            userTokens.add("Bearer " + tokens.user(i));
+        }
+        this.clientTokens = new ArrayList<>(options.getClients());
+        for (int i = 0; i < options.getClients(); i++) {
+            clientTokens.add("Bearer " + tokens.client(i));
+        }
+        this.loops = LoopResources.create("loadtest-driver", Math.max(2, Runtime.getRuntime().availableProcessors() / 2),
+            true);
+        this.connectionProvider = ConnectionProvider.fixed("loadtest", options.getConcurrency());
+        this.client = HttpClient.create(connectionProvider).runOn(loops).baseUrl("http://127.0.0.1:" + gatewayPort);
+    }
+
+    /**
+     * 压测 seconds 秒 , 等待已发出的请求全部完成后返回
+     */
+    public Result run(int seconds) {
+        Result result = new Result();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        long start = System.nanoTime();
+        Flux.range(0, options.getConcurrency())
+            .flatMap(worker -> Mono.defer(() -> send(result)).repeat(() -> System.nanoTime() < deadline),
+                options.getConcurrency())
+            .blockLast();
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private Mono<String> send(Result result) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Kind kind = pick(random);
+        String path;
+        String authorization;
+        switch (kind) {
+            case USER:
+                path = random.nextInt(4) == 0 ? "/user-service/orders/list"
+                    : "/user-service/orders/" + random.nextInt(1, 100000);
+                authorization = userTokens.get(random.nextInt(userTokens.size()));
+                break;
+            case CLIENT:
+                path = random.nextBoolean() ? "/user-service/open/goods/list" : "/user-service/open/goods/detail";
+                authorization = clientTokens.get(random.nextInt(clientTokens.size()));
+                break;
+            default:
+                path = "/user-service/public/ping";
+                authorization = null;
+                break;
+        }
+        long begin = System.nanoTime();
+        return client
+            .headers(headers -> {
+                if (authorization != null) {
+                    headers.set(HttpHeaderNames.AUTHORIZATION, authorization);
+                }
+            })
+            .get().uri(path)
+            .responseSingle((response, body) -> body.asString().defaultIfEmpty("")
+                .map(content -> outcome(response.status().code(), content)))
+            .onErrorResume(e -> Mono.just("error:" + e.getClass().getSimpleName()))
+            .doOnNext(outcome -> result.record(kind, outcome, (System.nanoTime() - begin) / 1000));
+    }
+
+    private Kind pick(ThreadLocalRandom random) {
+        int total = options.getUserWeight() + options.getClientWeight() + options.getWhitelistWeight();
+        int value = random.nextInt(total);
+        if (value < options.getUserWeight()) {
+            return Kind.USER;
+        }
+        return value < options.getUserWeight() + options.getClientWeight() ? Kind.CLIENT : Kind.WHITELIST;
+    }
+
+    /**
+     * 网关异常处理返回 http 200 , 错误码在响应体 code 中
+     */
+    private static String outcome(int status, String content) {
+        if (status == 200 && LocalStandIns.UPSTREAM_BODY.equals(content)) {
+            return "ok";
+        }
+        if (content.startsWith("{\"code\"")) {
+            JSONObject body = JSON.parseObject(content);
+            return "code:" + body.getInteger("code");
+        }
+        return "status:" + status;
+    }
+
+    @Override
+    public void close() {
+        connectionProvider.disposeLater().block();
+        loops.dispose();
+    }
+
+    /**
+     * 一次压测的结果 , 延迟单位为微秒
+     */
+    public static class Result {
+
+        private final Map<Kind, Recorder> recorders = new EnumMap<>(Kind.class);
+        private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        private long elapsedNanos;
+
+        Result() {
+            for (Kind kind : Kind.values()) {
+                recorders.put(kind, new Recorder(3));
+            }
+        }
+
+        void record(Kind kind, String outcome, long micros) {
+            recorders.get(kind).recordValue(micros);
+            outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+        }
+
+        public Map<Kind, Histogram> histograms() {
+            Map<Kind, Histogram> result = new EnumMap<>(Kind.class);
+            recorders.forEach((kind, recorder) -> result.put(kind, recorder.getIntervalHistogram()));
+            return result;
+        }
+
+        public Map<String, LongAdder> getOutcomes() {
+            return outcomes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package cn.worken.gateway.loadtest;
+
+import cn.worken.gateway.capture.CaptureFile;
+import cn.worken.gateway.capture.CaptureRecord;
+import cn.worken.gateway.capture.HeaderShape;
+import cn.worken.gateway.capture.TokenClass;
+import com.alibaba.fastjson.JSON;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * 开环回放采样文件 , 按采样时间间隔 / speedup 发送请求 , 延迟从计划发送时间开始计算 , 网关变慢时不会减少请求
+ * <p>
+ * 采样文件按请求结束顺序写入 , 计划时间已过的请求立即发送
+ */
+@Slf4j
+public class TrafficReplayer implements AutoCloseable {
+
+    /**
+     * 未通过校验的 token , 网关解析失败后拒绝
+     */
+    private static final String INVALID_TOKEN = "replay.invalid.token";
+
+    private final ReplayOptions options;
+    private final List<String> userTokens;
+    private final List<String> clientTokens;
+    private final LoopResources loops;
+    private final ConnectionProvider connectionProvider;
+    private final HttpClient client;
+    private final Semaphore inFlight;
+
+    public TrafficReplayer(ReplayOptions options) throws IOException {
+        this.options = options;
+        this.userTokens = tokens(options.getUserTokens());
+        this.clientTokens = tokens(options.getClientTokens());
+        if (userTokens.isEmpty() || clientTokens.isEmpty()) {
+            log.warn("未配置 user-tokens 或 client-tokens , 对应类型的请求不携带 token");
+        }
+        this.loops = LoopResources.create("loadtest-replay", Math.max(2, Runtime.getRuntime().availableProcessors() / 2),
+            true);
+        this.connectionProvider = ConnectionProvider.fixed("replay", options.getMaxInFlight());
+        this.client = HttpClient.create(connectionProvider).runOn(loops).baseUrl(options.getTarget());
+        this.inFlight = new Semaphore(options.getMaxInFlight());
+    }
+
+    private static List<String> tokens(String file) throws IOException {
+        if (file == null) {
+            return Collections.emptyList();
+        }
+        return Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8).stream().map(String::trim)
+            .filter(line -> !line.isEmpty()).collect(Collectors.toList());
+    }
+
+    public Result run() throws IOException {
+        Result result = new Result();
+        long limitMillis = TimeUnit.SECONDS.toMillis(options.getDuration());
+        try (CaptureFile.Reader reader = new CaptureFile.Reader(Paths.get(options.getFile()))) {
+            long start = System.nanoTime();
+            CaptureRecord record;
+            while ((record = reader.next()) != null) {
+                if (limitMillis > 0 && record.getOffsetMillis() > limitMillis) {
+                    continue;
+                }
+                if (record.getMethod() == null) {
+                    result.skipped.increment();
+                    continue;
+                }
+                long due = start + (long) (TimeUnit.MILLISECONDS.toNanos(record.getOffsetMillis()) / options.getSpeedup());
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                inFlight.acquireUninterruptibly();
+                result.maxLagNanos = Math.max(result.maxLagNanos, System.nanoTime() - due);
+                send(record, due, result);
+            }
+            // 等待已发出的请求全部完成
+            inFlight.acquireUninterruptibly(options.getMaxInFlight());
+            inFlight.release(options.getMaxInFlight());
+            result.elapsedNanos = System.nanoTime() - start;
+        }
+        return result;
+    }
+
+    private void send(CaptureRecord record, long due, Result result) {
+        int mask = record.getHeaderMask();
+        String token = token(record);
+        byte[] body = record.getBodySize() > 0 ? body(record.getBodySize()) : null;
+        String uri = (mask & HeaderShape.QUERY) != 0 ? record.getPath() + "?replay=1" : record.getPath();
+        HttpClient.RequestSender sender = client
+            .headers(headers -> headers(headers, record, token, body))
+            .request(HttpMethod.valueOf(record.getMethod().name()))
+            .uri(uri);
+        HttpClient.ResponseReceiver<?> request = body == null ? sender
+            : sender.send(Mono.just(Unpooled.wrappedBuffer(body)));
+        request.responseSingle((response, content) -> content.asString().defaultIfEmpty("")
+                .map(text -> outcome(response.status().code(), text)))
+            .onErrorResume(e -> Mono.just("error:" + e.getClass().getSimpleName()))
+            .doFinally(signal -> inFlight.release())
+            .subscribe(outcome -> result.record(record.getTokenClass(), outcome, (System.nanoTime() - due) / 1000));
+    }
+
+    /**
+     * 同一个采样用户标识始终使用同一个 token
+     */
+    private String token(CaptureRecord record) {
+        int mask = record.getHeaderMask();
+        switch (record.getTokenClass()) {
+            case USER:
+                return pick(userTokens, record.getIdentity());
+            case CLIENT:
+                return pick(clientTokens, record.getIdentity());
+            case UNVERIFIED:
+                return INVALID_TOKEN;
+            case WHITELIST:
+                return (mask & (HeaderShape.AUTHORIZATION | HeaderShape.TOKEN_COOKIE)) != 0
+                    ? pick(userTokens, record.getIdentity()) : null;
+            default:
+                return null;
+        }
+    }
+
+    private static String pick(List<String> tokens, int identity) {
+        return tokens.isEmpty() ? null : tokens.get(Math.floorMod(identity, tokens.size()));
+    }
+
+    /**
+     * 按采样的请求头特征构造请求头 , 其余请求头用填充头补齐数量
+     */
+    private static void headers(HttpHeaders headers, CaptureRecord record, String token, byte[] body) {
+        int mask = record.getHeaderMask();
+        StringBuilder cookie = new StringBuilder();
+        if (token != null) {
+            if ((mask & HeaderShape.TOKEN_COOKIE) != 0) {
+                cookie.append("token=").append(token);
+            } else {
+                headers.set(HttpHeaderNames.AUTHORIZATION, "Bearer " + token);
+            }
+        }
+        if ((mask & HeaderShape.REFRESH_TOKEN_COOKIE) != 0 && token != null) {
+            cookie.append(cookie.length() > 0 ? "; " : "").append("refresh_token=").append(token);
+        }
+        if (cookie.length() > 0) {
+            headers.set(HttpHeaderNames.COOKIE, cookie.toString());
+        }
+        if ((mask & HeaderShape.X_FORWARDED_FOR) != 0) {
+            // 198.18.0.0/15 基准测试网段 , 同一个用户使用同一个 ip
+            int identity = record.getIdentity();
+            headers.set("X-Forwarded-For", "198." + (18 + ((identity >>> 16) & 1)) + "." + ((identity >>> 8) & 0xFF)
+                + "." + (identity & 0xFF));
+        }
+        if ((mask & HeaderShape.USER_AGENT) != 0) {
+            headers.set(HttpHeaderNames.USER_AGENT, "gateway-replay");
+        }
+        if ((mask & HeaderShape.ACCEPT_ENCODING) != 0) {
+            headers.set(HttpHeaderNames.ACCEPT_ENCODING, "gzip");
+        }
+        if ((mask & HeaderShape.CONTENT_TYPE_JSON) != 0) {
+            headers.set(HttpHeaderNames.CONTENT_TYPE, "application/json");
+        } else if ((mask & HeaderShape.CONTENT_TYPE_FORM) != 0) {
+            headers.set(HttpHeaderNames.CONTENT_TYPE, "application/x-www-form-urlencoded");
+        } else if ((mask & HeaderShape.CONTENT_TYPE_MULTIPART) != 0) {
+            headers.set(HttpHeaderNames.CONTENT_TYPE, "multipart/form-data; boundary=replay");
+        }
+        if ((mask & HeaderShape.TRANS_HEADERS) != 0) {
+            headers.set("X_IDENTIFIES", "replay");
+        }
+        if (body != null) {
+            headers.set(HttpHeaderNames.CONTENT_LENGTH, body.length);
+        }
+        // host 由 http client 写入
+        for (int i = headers.size() + 1; i < record.getHeaderCount(); i++) {
+            headers.set("X-Replay-Pad-" + i, "1");
+        }
+    }
+
+    private static byte[] body(int size) {
+        byte[] body = new byte[size];
+        Arrays.fill(body, (byte) 'a');
+        return body;
+    }
+
+    /**
+     * 网关异常处理返回 http 200 , 错误码在响应体 code 中
+     */
+    private static String outcome(int status, String content) {
+        if (content.startsWith("{\"code\"")) {
+            Integer code = JSON.parseObject(content).getInteger("code");
+            return "status:" + status + " code:" + code;
+        }
+        return "status:" + status;
+    }
+
+    @Override
+    public void close() {
+        connectionProvider.disposeLater().block();
+        loops.dispose();
+    }
+
+    /**
+     * 一次回放的结果 , 延迟单位为微秒
+     */
+    public static class Result {
+
+        private final Map<TokenClass, Recorder> recorders = new EnumMap<>(TokenClass.class);
+        private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        private final LongAdder skipped = new LongAdder();
+        private long elapsedNanos;
+        private long maxLagNanos;
+
+        Result() {
+            for (TokenClass tokenClass : TokenClass.values()) {
+                recorders.put(tokenClass, new Recorder(3));
+            }
+        }
+
+        void record(TokenClass tokenClass, String outcome, long micros) {
+            recorders.get(tokenClass).recordValue(micros);
+            outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+        }
+
+        public Map<TokenClass, Histogram> histograms() {
+            Map<TokenClass, Histogram> result = new EnumMap<>(TokenClass.class);
+            recorders.forEach((tokenClass, recorder) -> result.put(tokenClass, recorder.getIntervalHistogram()));
+            return result;
+        }
+
+        public Map<String, LongAdder> getOutcomes() {
+            return outcomes;
+        }
+
+        public long getSkipped() {
+            return skipped.sum();
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * 实际发送时间落后于计划时间的最大值 , 较大时说明回放端或并发上限成为瓶颈
+         */
+        public long getMaxLagNanos() {
+            return maxLagNanos;
+        }
+    }
+}
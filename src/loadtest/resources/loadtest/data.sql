@@ -0,0 +1,9 @@
+insert into open_white_api (api_uri) values ('/user-service/public/**');
+insert into open_white_api (api_uri) values ('/oauth/**');
+
+insert into open_api (id, api_uri, status) values ('1', '/user-service/open/goods/list', 1);
+insert into open_api (id, api_uri, status) values ('2', '/user-service/open/goods/detail', 1);
+
+-- client-0 ... client-9999 拥有全部开放接口
+insert into open_api_grant_rel (app_key, api_id) select concat('client-', x), '1' from system_range(0, 9999);
+insert into open_api_grant_rel (app_key, api_id) select concat('client-', x), '2' from system_range(0, 9999);
@@ -0,0 +1,20 @@
+create table if not exists open_api (
+  id      varchar(32)  not null primary key,
+  api_uri varchar(255) not null,
+  status  int          not null default 1
+);
+
+create table if not exists open_api_grant_rel (
+  app_key varchar(64) not null,
+  api_id  varchar(32) not null
+);
+
+create table if not exists open_white_api (
+  api_uri varchar(255) not null
+);
+
+create table if not exists open_api_app_quota (
+  app_key varchar(64)    not null primary key,
+  qps     decimal(10, 2) not null,
+  burst   int            not null default 0
+);
@@ -0,0 +1,146 @@
+package cn.worken.gateway.auth;
+
+import cn.worken.gateway.cache.CacheRegistry;
+import cn.worken.gateway.config.constant.ClientConstants;
+import cn.worken.gateway.config.constant.UserConstants;
+import cn.worken.gateway.dto.GatewayAuthenticationInfo;
+import cn.worken.gateway.identity.IdentityClaims;
+import cn.worken.gateway.identity.IdentitySigner;
+import com.alibaba.fastjson.JSON;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Base64Utils;
+
+/**
+ * 已校验 token 对应的用户信息缓存 , 同一个 token 只构建一次用户信息和请求头
+ *
+ * @see cn.worken.gateway.filter.AuthenticationRetrieveFilter
+ */
+@Component
+public class AuthenticationInfoCache {
+
+    /**
+     * key 为 token 原文
+     */
+    private final Cache<String, CachedAuthentication> cache;
+    /**
+     * 组织id 客户端id 等重复度高的字符串去重
+     */
+    private final Interner<String> interner = Interners.newWeakInterner();
+    /**
+     * 签名身份头 , 未配置密钥时为空
+     */
+    private final IdentitySigner identitySigner;
+    private final long expireSeconds;
+
+    public AuthenticationInfoCache(@Value("${gateway.auth-cache.maximum-size:10000}") long maximumSize,
+        @Value("${gateway.auth-cache.expire-seconds:600}") long expireSeconds,
+        ObjectProvider<IdentitySigner> identitySigner, CacheRegistry cacheRegistry) {
+        // key 为 token 原文 , 不能通过 actuator 查看
+        this.cache = cacheRegistry.register("authenticationInfo", CacheBuilder.newBuilder().maximumSize(maximumSize)
+            .expireAfterWrite(expireSeconds, TimeUnit.SECONDS).recordStats().build(), null, false);
+        this.identitySigner = identitySigner.getIfAvailable();
+        this.expireSeconds = expireSeconds;
+    }
+
+    /**
+     * 获取 token 对应的用户信息 , 调用前 jwt 必须已经校验通过
+     *
+     * @param jwt 校验后的 jwt
+     * @param isUser 是否为平台用户
+     */
+    public CachedAuthentication get(Jwt jwt, boolean isUser) {
+        CachedAuthentication cached = cache.getIfPresent(jwt.getTokenValue());
+        if (cached == null) {
+            GatewayAuthenticationInfo authenticationInfo = isUser ? buildUser(jwt) : buildClient(jwt);
+            cached = new CachedAuthentication(authenticationInfo, JSON.toJSONString(authenticationInfo),
+                signIdentity(jwt, authenticationInfo));
+            cache.put(jwt.getTokenValue(), cached);
+        }
+        return cached;
+    }
+
+    private GatewayAuthenticationInfo buildUser(Jwt jwt) {
+        // 封装用户信息
+        return GatewayAuthenticationInfo.builder()
+            .userId(String.valueOf(jwt.<Integer>getClaim(UserConstants.USER_ID)))
+            .clientId(intern(jwt.getClaim(UserConstants.CLIENT_ID)))
+            .comId(intern(jwt.getClaim(UserConstants.COM_ID)))
+            .username(jwt.getClaim(UserConstants.USER_NAME))
+            // 防止中文乱码
+            .name(Optional.ofNullable(jwt.getClaimAsString(UserConstants.NAME))
+                .map(n -> Base64Utils.encodeToString(n.getBytes())).orElse(null))
+            .userType(intern(jwt.getClaim(UserConstants.USER_TYPE)))
+            .server(intern(jwt.getClaim(UserConstants.SERVER)))
+            .productId(jwt.getClaim(UserConstants.PRODUCT_ID))
+            .build();
+    }
+
+    private GatewayAuthenticationInfo buildClient(Jwt jwt) {
+        // client 请求封装 只有 client_id 和 com_id
+        return GatewayAuthenticationInfo.builder()
+            .clientId(intern(jwt.getClaim(ClientConstants.CLIENT_ID)))
+            .comId(intern(jwt.getClaim(ClientConstants.COM_ID)))
+            .confProductCode(intern(jwt.getClaim(ClientConstants.PRODUCT_CODE)))
+            .build();
+    }
+
+    /**
+     * 签名身份头的过期时间与 token 一致 , 这样可以和用户信息一起缓存
+     */
+    private String signIdentity(Jwt jwt, GatewayAuthenticationInfo info) {
+        if (identitySigner == null) {
+            return null;
+        }
+        Instant expiresAt = Optional.ofNullable(jwt.getExpiresAt())
+            .orElseGet(() -> Instant.now().plusSeconds(expireSeconds));
+        return identitySigner.sign(new IdentityClaims()
+            .setUserId(info.getUserId())
+            .setUsername(info.getUsername())
+            .setComId(info.getComId())
+            .setClientId(info.getClientId())
+            .setUserType(info.getUserType())
+            .setName(info.getName())
+            .setServer(info.getServer())
+            .setLoginType(info.getLoginType())
+            .setProductId(info.getProductId())
+            .setConfProductCode(info.getConfProductCode())
+            .setExpiresAt(expiresAt.getEpochSecond()));
+    }
+
+    private String intern(String value) {
+        return value == null ? null : interner.intern(value);
+    }
+
+    /**
+     * 缓存的用户信息 , 多个请求共享同一个对象 , 使用方不能修改
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class CachedAuthentication {
+
+        /**
+         * 用户信息
+         */
+        private final GatewayAuthenticationInfo info;
+        /**
+         * 序列化后的 X-GatewayAuthenticationInfo 请求头
+         */
+        private final String headerValue;
+        /**
+         * 签名身份头 X-Gateway-Identity , 未开启时为空
+         */
+        private final String identityHeaderValue;
+    }
+}
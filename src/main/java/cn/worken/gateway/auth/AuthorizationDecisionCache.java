@@ -0,0 +1,144 @@
+package cn.worken.gateway.auth;
+
+import cn.worken.gateway.auth.AuthenticationInfoCache.CachedAuthentication;
+import cn.worken.gateway.cache.CacheRegistry;
+import cn.worken.gateway.config.constant.ReqContextConstant;
+import cn.worken.gateway.resource.ResourceAccessStatus;
+import cn.worken.gateway.resource.ResourceChangedEvent;
+import cn.worken.gateway.util.GatewayUtils;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * 授权结果缓存 , key 为 (token 摘要 , 请求路径) , 缓存 jwt 解析结果 用户信息请求头 以及最终的资源校验结果
+ * <p>
+ * 同一个会话重复访问同一个接口时 , 认证和授权只需要一次缓存查询 ; 接口权限映射变化 或 收到用户权限变更消息时全部失效
+ * <p>
+ * 默认关闭 , 通过 gateway.decision-cache.enabled 开启
+ */
+@Slf4j
+@Component
+public class AuthorizationDecisionCache {
+
+    /**
+     * 用户权限变更通知 channel , 修改 oauth:res:{uid} 后向该 channel 发送消息
+     */
+    public static final String PERMISSION_CHANGED_CHANNEL = "gateway:permission:changed";
+
+    private final boolean enabled;
+    private final Cache<String, Decision> cache;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    public AuthorizationDecisionCache(@Value("${gateway.decision-cache.enabled:false}") boolean enabled,
+        @Value("${gateway.decision-cache.maximum-size:10000}") long maximumSize,
+        @Value("${gateway.decision-cache.expire-seconds:30}") long expireSeconds,
+        RedisMessageListenerContainer listenerContainer, CacheRegistry cacheRegistry) {
+        this.enabled = enabled;
+        this.cache = cacheRegistry.register("authorizationDecision", CacheBuilder.newBuilder()
+            .maximumSize(maximumSize).expireAfterWrite(expireSeconds, TimeUnit.SECONDS).recordStats().build());
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            listenerContainer.addMessageListener((message, pattern) -> invalidateAll("用户权限变更"),
+                new ChannelTopic(PERMISSION_CHANGED_CHANNEL));
+        }
+    }
+
+    /**
+     * 查询缓存的授权结果 , 未命中时在 attribute 中记录缓存 key , 资源校验完成后写入
+     *
+     * @param exchange 请求上下文
+     * @param token 请求 token
+     * @return 未开启 或 未命中时返回 null
+     */
+    public Decision lookup(ServerWebExchange exchange, String token) {
+        if (!enabled || token == null) {
+            return null;
+        }
+        String key = Hashing.sha256().hashString(token, StandardCharsets.UTF_8) + GatewayUtils.getRawPath(exchange);
+        Decision decision = cache.getIfPresent(key);
+        if (decision != null && decision.getJwt().getExpiresAt() != null
+            && decision.getJwt().getExpiresAt().isBefore(Instant.now())) {
+            cache.invalidate(key);
+            decision = null;
+        }
+        if (decision == null) {
+            exchange.getAttributes().put(ReqContextConstant.DECISION_CACHE_KEY, key);
+        }
+        return decision;
+    }
+
+    /**
+     * 将缓存的授权结果放入 attribute , 与完整校验流程放入的内容一致
+     */
+    public void apply(ServerWebExchange exchange, Decision decision) {
+        Map<String, Object> attributes = exchange.getAttributes();
+        attributes.put(ReqContextConstant.SECURITY_INFO_IN_REQ, decision.getJwt());
+        attributes.put(ReqContextConstant.SECURITY_IS_USER, decision.isUser());
+        if (decision.getIdentifies() != null) {
+            attributes.put(ReqContextConstant.X_IDENTIFIES, decision.getIdentifies());
+        }
+        attributes.put(ReqContextConstant.CACHED_AUTHENTICATION, decision.getAuthentication());
+        attributes.put(ReqContextConstant.RESOURCE_ACCESS_STATUS, decision.getAccessStatus());
+    }
+
+    /**
+     * 资源校验完成后写入缓存
+     */
+    public void put(ServerWebExchange exchange, ResourceAccessStatus accessStatus) {
+        String key = exchange.getAttribute(ReqContextConstant.DECISION_CACHE_KEY);
+        Jwt jwt = exchange.getAttribute(ReqContextConstant.SECURITY_INFO_IN_REQ);
+        Boolean isUser = exchange.getAttribute(ReqContextConstant.SECURITY_IS_USER);
+        CachedAuthentication authentication = exchange.getAttribute(ReqContextConstant.CACHED_AUTHENTICATION);
+        if (key == null || jwt == null || isUser == null || authentication == null) {
+            return;
+        }
+        cache.put(key, new Decision(jwt, isUser, exchange.getAttribute(ReqContextConstant.X_IDENTIFIES),
+            authentication, accessStatus));
+    }
+
+    @EventListener(ResourceChangedEvent.class)
+    public void onResourceChanged(ResourceChangedEvent event) {
+        invalidateAll("接口权限变更 " + event.getSource());
+    }
+
+    private void invalidateAll(String reason) {
+        if (enabled) {
+            cache.invalidateAll();
+            log.info("授权结果缓存已清空 , 原因 : {}", reason);
+        }
+    }
+
+    /**
+     * 缓存的授权结果
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Decision {
+
+        private final Jwt jwt;
+        private final boolean user;
+        private final Object identifies;
+        private final CachedAuthentication authentication;
+        private final ResourceAccessStatus accessStatus;
+    }
+}
@@ -0,0 +1,26 @@
+package cn.worken.gateway.auth;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * jwt 校验公钥配置 , 可以放在 nacos 配置中心 , 修改后自动重新加载
+ * <p>
+ * 公钥配置在 gateway.jwt.keys (kid -> rsa 公钥 X509 base64) , 由 JwtKeySet 直接从 Environment 读取
+ */
+@Data
+@Component
+@ConfigurationProperties("gateway.jwt")
+public class JwtKeyProperties {
+
+    /**
+     * 本地 JWKS 文件路径 , 与 gateway.jwt.keys 合并 , 文件修改后自动重新加载
+     */
+    private String jwksLocation;
+
+    /**
+     * token 头中没有 kid 时使用的公钥
+     */
+    private String defaultKid = "default";
+}
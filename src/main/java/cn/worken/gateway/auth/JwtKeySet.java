@@ -0,0 +1,121 @@
+package cn.worken.gateway.auth;
+
+import cn.worken.gateway.auth.SecurityConfig.PubKey;
+import cn.worken.gateway.util.RSAUtils;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * jwt 公钥集合 , 每个 kid 对应一个预先构建好的线程安全 verifier
+ * <p>
+ * 配置中心刷新或本地 JWKS 文件修改后整体替换 , 加载失败时保留上一次的公钥
+ */
+@Slf4j
+@Component
+public class JwtKeySet {
+
+    private static final String KEYS_PROPERTY = "gateway.jwt.keys";
+
+    private final JwtKeyProperties properties;
+    private final Environment environment;
+    private volatile Map<String, JWSVerifier> verifiers = Collections.emptyMap();
+    private volatile long jwksLastModified;
+
+    public JwtKeySet(JwtKeyProperties properties, Environment environment) {
+        this.properties = properties;
+        this.environment = environment;
+    }
+
+    /**
+     * 根据 kid 获取 verifier
+     *
+     * @param kid token 头中的 kid , 为空时使用默认 kid
+     * @return 不存在时返回 null
+     */
+    public JWSVerifier getVerifier(String kid) {
+        return verifiers.get(StringUtils.isEmpty(kid) ? properties.getDefaultKid() : kid);
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    /**
+     * 配置中心刷新后重新加载
+     */
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void onRefresh() {
+        reload();
+    }
+
+    /**
+     * 本地 JWKS 文件修改后重新加载
+     */
+    @Scheduled(fixedDelay = 30000)
+    public void checkJwksFile() {
+        File file = jwksFile();
+        if (file != null && file.lastModified() != jwksLastModified) {
+            reload();
+        }
+    }
+
+    public synchronized void reload() {
+        try {
+            Map<String, JWSVerifier> loaded = new LinkedHashMap<>();
+            File file = jwksFile();
+            if (file != null) {
+                long lastModified = file.lastModified();
+                for (JWK jwk : JWKSet.load(file).getKeys()) {
+                    if (jwk instanceof RSAKey && jwk.getKeyID() != null) {
+                        loaded.put(jwk.getKeyID(), new RSASSAVerifier(((RSAKey) jwk).toRSAPublicKey()));
+                    }
+                }
+                jwksLastModified = lastModified;
+            }
+            for (Map.Entry<String, String> entry : keys().entrySet()) {
+                loaded.put(entry.getKey(), new RSASSAVerifier(RSAUtils.getPublicKey(entry.getValue())));
+            }
+            // 未配置任何公钥时使用内置公钥
+            if (loaded.isEmpty()) {
+                loaded.put(properties.getDefaultKid(), new RSASSAVerifier(RSAUtils.getPublicKey(PubKey.VALUE)));
+            }
+            verifiers = Collections.unmodifiableMap(loaded);
+            log.info("jwt 公钥加载完成 kid:{}", loaded.keySet());
+        } catch (Exception e) {
+            if (verifiers.isEmpty()) {
+                throw new IllegalStateException("jwt 公钥加载失败", e);
+            }
+            log.error("jwt 公钥加载失败 , 继续使用原公钥 kid:{}", verifiers.keySet(), e);
+        }
+    }
+
+    /**
+     * 刷新时 @ConfigurationProperties 绑定的 map 只会合并新配置 , 配置中心删除的 kid 不会移除 , 每次从 Environment 重新绑定
+     */
+    private Map<String, String> keys() {
+        return Binder.get(environment).bind(KEYS_PROPERTY, Bindable.mapOf(String.class, String.class))
+            .orElseGet(Collections::emptyMap);
+    }
+
+    private File jwksFile() {
+        return StringUtils.isBlank(properties.getJwksLocation()) ? null : new File(properties.getJwksLocation());
+    }
+}
@@ -0,0 +1,86 @@
+package cn.worken.gateway.auth;
+
+import com.google.common.collect.ImmutableSet;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jwt.SignedJWT;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.MappedJwtClaimSetConverter;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * 根据 token 头中的 kid 选择公钥校验 jwt , 公钥集合替换时不需要重新创建 decoder
+ *
+ * @see JwtKeySet
+ */
+@Component
+public class KeySetReactiveJwtDecoder implements ReactiveJwtDecoder {
+
+    private static final Set<JWSAlgorithm> ALGORITHMS =
+        ImmutableSet.of(JWSAlgorithm.RS256, JWSAlgorithm.RS384, JWSAlgorithm.RS512);
+
+    private final JwtKeySet jwtKeySet;
+    private final Converter<Map<String, Object>, Map<String, Object>> claimSetConverter =
+        MappedJwtClaimSetConverter.withDefaults(Collections.emptyMap());
+    private final OAuth2TokenValidator<Jwt> jwtValidator = JwtValidators.createDefault();
+
+    public KeySetReactiveJwtDecoder(JwtKeySet jwtKeySet) {
+        this.jwtKeySet = jwtKeySet;
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) throws JwtException {
+        return Mono.fromCallable(() -> decodeSync(token));
+    }
+
+    private Jwt decodeSync(String token) {
+        SignedJWT signedJwt;
+        try {
+            signedJwt = SignedJWT.parse(token);
+        } catch (ParseException e) {
+            throw new JwtException("token 格式错误: " + e.getMessage(), e);
+        }
+        if (!ALGORITHMS.contains(signedJwt.getHeader().getAlgorithm())) {
+            throw new JwtException("不支持的签名算法: " + signedJwt.getHeader().getAlgorithm());
+        }
+        String kid = signedJwt.getHeader().getKeyID();
+        JWSVerifier verifier = jwtKeySet.getVerifier(kid);
+        if (verifier == null) {
+            throw new JwtException("未知的公钥 kid: " + kid);
+        }
+        Jwt jwt;
+        try {
+            if (!signedJwt.verify(verifier)) {
+                throw new JwtException("token 签名错误");
+            }
+            Map<String, Object> headers = new LinkedHashMap<>(signedJwt.getHeader().toJSONObject());
+            Map<String, Object> claims = claimSetConverter.convert(signedJwt.getJWTClaimsSet().getClaims());
+            jwt = new Jwt(token, (Instant) claims.get(JwtClaimNames.IAT), (Instant) claims.get(JwtClaimNames.EXP),
+                headers, claims);
+        } catch (JOSEException | ParseException e) {
+            throw new JwtException("token 校验失败: " + e.getMessage(), e);
+        }
+        OAuth2TokenValidatorResult result = jwtValidator.validate(jwt);
+        if (result.hasErrors()) {
+            String description = result.getErrors().iterator().next().getDescription();
+            throw new JwtValidationException(description, result.getErrors());
+        }
+        return jwt;
+    }
+}
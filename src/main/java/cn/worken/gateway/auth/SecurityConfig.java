@@ -1,12 +1,14 @@
 package cn.worken.gateway.auth;
 
+import cn.worken.gateway.auth.AuthorizationDecisionCache.Decision;
 import cn.worken.gateway.config.constant.ReqContextConstant;
 import cn.worken.gateway.config.constant.UserConstants;
+import cn.worken.gateway.jfr.GatewayEvents;
+import cn.worken.gateway.jfr.GatewayEvents.Type;
+import cn.worken.gateway.metrics.RequestTimeline;
+import cn.worken.gateway.metrics.RequestTimeline.Phase;
 import cn.worken.gateway.resource.manage.WhiteListServerWebExchangeMatcher;
-import cn.worken.gateway.util.RSAUtils;
-import java.security.interfaces.RSAPublicKey;
 import java.util.Map;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,9 +16,7 @@ import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.oauth2.client.http.AccessTokenRequiredException;
-import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
-import org.springframework.security.oauth2.server.resource.BearerTokenAuthenticationToken;
-import org.springframework.security.oauth2.server.resource.web.server.ServerBearerTokenAuthenticationConverter;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import reactor.core.publisher.Mono;
 
@@ -32,21 +32,23 @@ import reactor.core.publisher.Mono;
 public class SecurityConfig {
 
     private final WhiteListServerWebExchangeMatcher whiteListServerWebExchangeMatcher;
-
-    public SecurityConfig(WhiteListServerWebExchangeMatcher whiteListServerWebExchangeMatcher) {
-        this.whiteListServerWebExchangeMatcher = whiteListServerWebExchangeMatcher;
-    }
-
+    private final TokenExtractor tokenExtractor;
     /**
-     * rsa 加密 key
+     * 按 kid 选择公钥校验 , 公钥可热更新
      */
-    @SneakyThrows
-    @Bean
-    public NimbusReactiveJwtDecoder jwtDecoder() {
-        RSAPublicKey publicKey = RSAUtils.getPublicKey(PubKey.VALUE);
-        return new NimbusReactiveJwtDecoder(publicKey);
-    }
+    private final ReactiveJwtDecoder jwtDecoder;
+    private final TokenRevocationList tokenRevocationList;
+    private final AuthorizationDecisionCache decisionCache;
 
+    public SecurityConfig(WhiteListServerWebExchangeMatcher whiteListServerWebExchangeMatcher,
+        TokenExtractor tokenExtractor, ReactiveJwtDecoder jwtDecoder, TokenRevocationList tokenRevocationList,
+        AuthorizationDecisionCache decisionCache) {
+        this.whiteListServerWebExchangeMatcher = whiteListServerWebExchangeMatcher;
+        this.tokenExtractor = tokenExtractor;
+        this.jwtDecoder = jwtDecoder;
+        this.tokenRevocationList = tokenRevocationList;
+        this.decisionCache = decisionCache;
+    }
 
     /**
      * 鉴权配置
@@ -60,12 +62,24 @@ public class SecurityConfig {
             // 其他所有接口需要鉴权
             .and().authorizeExchange().anyExchange().access((authentication, object) -> {
                 // 获取token 先从cookie中获取 再从header中获取
-                return new CookieTokenAuthenticationConverter().convert(object.getExchange())
-                    .switchIfEmpty(new ServerBearerTokenAuthenticationConverter().convert(object.getExchange()))
+                String token = tokenExtractor.token(object.getExchange());
+                // 命中授权结果缓存 跳过 jwt 校验 , 仍然校验是否已注销
+                Decision decision = decisionCache.lookup(object.getExchange(), token);
+                if (decision != null) {
+                    return tokenRevocationList.check(decision.getJwt())
+                        .doOnSuccess(authJwt -> RequestTimeline.mark(object.getExchange(), Phase.JWT_VERIFY))
+                        .doOnSuccess(authJwt -> decisionCache.apply(object.getExchange(), decision))
+                        .map(jwt -> new AuthorizationDecision(true))
+                        .onErrorReturn(new AuthorizationDecision(false));
+                }
+                return Mono.justOrEmpty(token)
                     .switchIfEmpty(Mono.error(new AccessTokenRequiredException("未携带有效token", null)))
-                    .map(auth -> (BearerTokenAuthenticationToken) auth)
                     // 校验 jwt token
-                    .flatMap(authToken -> jwtDecoder().decode(authToken.getToken()))
+                    // 鉴权在路由匹配之前 , 服务名取路径第一段
+                    .flatMap(t -> GatewayEvents.trace(Type.JWT_VERIFY, object.getExchange(), jwtDecoder.decode(t)))
+                    // 校验 token 是否已注销
+                    .flatMap(tokenRevocationList::check)
+                    .doOnSuccess(authJwt -> RequestTimeline.mark(object.getExchange(), Phase.JWT_VERIFY))
                     // 校验成功 , 在 attributes 中放入校验后的信息 jwt
                     .doOnSuccess(authJwt -> object.getExchange().getAttributes()
                         .put(ReqContextConstant.SECURITY_INFO_IN_REQ, authJwt))
@@ -78,7 +92,9 @@ public class SecurityConfig {
                         // 请求用户唯一标识 如果是用户的话使用 username ; client 的话使用 client_id
                         Object identifies = isUser ? authJwt.getClaims().get(UserConstants.USER_NAME)
                             : authJwt.getClaims().get(UserConstants.CLIENT_ID);
-                        attributes.put(ReqContextConstant.X_IDENTIFIES, identifies);
+                        if (identifies != null) {
+                            attributes.put(ReqContextConstant.X_IDENTIFIES, identifies);
+                        }
                     })
                     .map(jwt -> new AuthorizationDecision(true))
                     // 校验失败 抛出异常 交给全局异常处理
@@ -94,6 +110,9 @@ public class SecurityConfig {
             .and().build();
     }
 
+    /**
+     * 内置公钥 , 未配置 gateway.jwt 时使用
+     */
     public interface PubKey {
 
         String VALUE =
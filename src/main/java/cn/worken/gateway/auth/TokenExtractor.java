@@ -0,0 +1,120 @@
+package cn.worken.gateway.auth;
+
+import cn.worken.gateway.config.constant.ReqContextConstant;
+import cn.worken.gateway.metrics.RequestTimeline;
+import cn.worken.gateway.metrics.RequestTimeline.Phase;
+import java.util.List;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * 从请求中获取 token , 每个请求只解析一次 cookie 和 Authorization 请求头 , 结果放入 attribute 供后续 filter 使用
+ * <p>
+ * 先从 cookie 中获取 (内部用户使用该种方式存储 token) , 再从 Authorization: Bearer 中获取
+ */
+@Component
+public class TokenExtractor {
+
+    private static final String TOKEN_COOKIE = "token";
+    private static final String REFRESH_TOKEN_COOKIE = "refresh_token";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    /**
+     * 获取请求 token , 不存在时返回 null
+     */
+    public String token(ServerWebExchange exchange) {
+        extract(exchange);
+        return exchange.getAttribute(ReqContextConstant.TOKEN);
+    }
+
+    /**
+     * 获取 cookie 中的 refresh_token , 不存在时返回 null
+     */
+    public String refreshToken(ServerWebExchange exchange) {
+        extract(exchange);
+        return exchange.getAttribute(ReqContextConstant.REFRESH_TOKEN);
+    }
+
+    /**
+     * token 是否来自 cookie , 内部用户使用 cookie 存储 token
+     */
+    public boolean isCookieToken(ServerWebExchange exchange) {
+        extract(exchange);
+        return exchange.getAttributeOrDefault(ReqContextConstant.TOKEN_FROM_COOKIE, false);
+    }
+
+    private void extract(ServerWebExchange exchange) {
+        if (exchange.getAttributes().putIfAbsent(ReqContextConstant.TOKEN_EXTRACTED, Boolean.TRUE) != null) {
+            return;
+        }
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        String token = null;
+        String refreshToken = null;
+        List<String> cookieHeaders = headers.get(HttpHeaders.COOKIE);
+        if (cookieHeaders != null) {
+            for (String cookieHeader : cookieHeaders) {
+                int start = 0;
+                int length = cookieHeader.length();
+                while (start < length) {
+                    int end = cookieHeader.indexOf(';', start);
+                    if (end < 0) {
+                        end = length;
+                    }
+                    int eq = cookieHeader.indexOf('=', start);
+                    if (eq > 0 && eq < end) {
+                        int nameStart = skipWhitespace(cookieHeader, start, eq);
+                        if (token == null && matches(cookieHeader, nameStart, eq, TOKEN_COOKIE)) {
+                            token = value(cookieHeader, eq + 1, end);
+                        } else if (refreshToken == null && matches(cookieHeader, nameStart, eq, REFRESH_TOKEN_COOKIE)) {
+                            refreshToken = value(cookieHeader, eq + 1, end);
+                        }
+                    }
+                    start = end + 1;
+                }
+            }
+        }
+        if (token != null) {
+            exchange.getAttributes().put(ReqContextConstant.TOKEN_FROM_COOKIE, Boolean.TRUE);
+        } else {
+            String authorization = headers.getFirst(HttpHeaders.AUTHORIZATION);
+            if (authorization != null && authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+                token = emptyToNull(authorization.substring(BEARER_PREFIX.length()).trim());
+            }
+        }
+        if (token != null) {
+            exchange.getAttributes().put(ReqContextConstant.TOKEN, token);
+        }
+        if (refreshToken != null) {
+            exchange.getAttributes().put(ReqContextConstant.REFRESH_TOKEN, refreshToken);
+        }
+        RequestTimeline.mark(exchange, Phase.TOKEN_EXTRACT);
+    }
+
+    private static int skipWhitespace(String s, int from, int to) {
+        while (from < to && s.charAt(from) == ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static boolean matches(String s, int from, int to, String name) {
+        while (to > from && s.charAt(to - 1) == ' ') {
+            to--;
+        }
+        return to - from == name.length() && s.regionMatches(from, name, 0, name.length());
+    }
+
+    private static String value(String s, int from, int to) {
+        String value = s.substring(from, to).trim();
+        // 去掉双引号
+        if (value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+            value = value.substring(1, value.length() - 1);
+        }
+        return emptyToNull(value);
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,170 @@
+package cn.worken.gateway.auth;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * token 注销列表 , 按 jti 注销
+ * <p>
+ * 注销记录写入 redis key (有效期与 token 一致) 并追加到 redis stream , 每个节点从 stream 同步到本地布隆过滤器和精确集合 ,
+ * 只有布隆过滤器命中且本地集合中没有时才查询 redis , 正常请求不产生 redis 调用
+ * <p>
+ * stream 记录格式 : jti -> token id , exp -> 过期时间(秒)
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    public static final String STREAM_KEY = "gateway:token:revocation";
+    public static final String REVOKED_KEY_PREFIX = "gateway:token:revoked:";
+    private static final int READ_BATCH = 1000;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final int expectedInsertions;
+    private final long streamMaxLength;
+    /**
+     * 本地精确集合 jti -> 过期时间(秒)
+     */
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter<CharSequence> bloomFilter;
+    /**
+     * 已同步到的 stream id
+     */
+    private String lastId = "0-0";
+
+    public TokenRevocationList(StringRedisTemplate stringRedisTemplate,
+        ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+        @Value("${gateway.revocation.expected-insertions:100000}") int expectedInsertions,
+        @Value("${gateway.revocation.stream-max-length:100000}") long streamMaxLength) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.reactiveStringRedisTemplate = reactiveStringRedisTemplate;
+        this.expectedInsertions = expectedInsertions;
+        this.streamMaxLength = streamMaxLength;
+        this.bloomFilter = newBloomFilter();
+    }
+
+    /**
+     * 校验 token 是否已注销
+     *
+     * @param jwt 已校验签名的 jwt
+     * @return 未注销时返回原 jwt , 已注销时返回异常
+     */
+    public Mono<Jwt> check(Jwt jwt) {
+        String jti = jwt.getId();
+        if (jti == null || !bloomFilter.mightContain(jti)) {
+            return Mono.just(jwt);
+        }
+        if (revoked.containsKey(jti)) {
+            return Mono.error(new JwtException("token 已注销"));
+        }
+        // 布隆过滤器误判 或 本地尚未同步 , 以 redis 为准
+        return reactiveStringRedisTemplate.hasKey(REVOKED_KEY_PREFIX + jti)
+            .onErrorResume(e -> {
+                log.error("查询 token 注销状态失败 jti:{}", jti, e);
+                return Mono.just(Boolean.FALSE);
+            })
+            .flatMap(isRevoked -> isRevoked ? Mono.error(new JwtException("token 已注销")) : Mono.just(jwt));
+    }
+
+    /**
+     * 注销 token , 所有节点在下一次同步后生效 ; redis 写入成功后才加入本地注销列表
+     *
+     * @param jti token id
+     * @param expiresAt token 过期时间
+     */
+    public Mono<Void> revoke(String jti, Instant expiresAt) {
+        Duration ttl = Duration.ofSeconds(Math.max(1, Duration.between(Instant.now(), expiresAt).getSeconds()));
+        Map<String, String> record = new HashMap<>(4);
+        record.put("jti", jti);
+        record.put("exp", String.valueOf(expiresAt.getEpochSecond()));
+        return reactiveStringRedisTemplate.opsForValue().set(REVOKED_KEY_PREFIX + jti, "1", ttl)
+            .then(reactiveStringRedisTemplate.opsForStream().add(STREAM_KEY, record))
+            .then(reactiveStringRedisTemplate.opsForStream().trim(STREAM_KEY, streamMaxLength))
+            .doOnSuccess(trimmed -> add(jti, expiresAt.getEpochSecond()))
+            .then();
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            sync();
+        } catch (Exception e) {
+            log.error("初始化 token 注销列表失败", e);
+        }
+    }
+
+    /**
+     * 从 redis stream 增量同步
+     */
+    @Scheduled(fixedDelayString = "${gateway.revocation.sync-interval-ms:1000}")
+    public synchronized void sync() {
+        List<MapRecord<String, Object, Object>> records;
+        do {
+            records = stringRedisTemplate.opsForStream().read(StreamReadOptions.empty().count(READ_BATCH),
+                StreamOffset.create(STREAM_KEY, ReadOffset.from(lastId)));
+            if (records == null) {
+                return;
+            }
+            for (MapRecord<String, Object, Object> record : records) {
+                Object jti = record.getValue().get("jti");
+                Object exp = record.getValue().get("exp");
+                if (jti != null && exp != null) {
+                    add(jti.toString(), Long.parseLong(exp.toString()));
+                }
+                lastId = record.getId().getValue();
+            }
+        } while (records.size() == READ_BATCH);
+    }
+
+    /**
+     * 清除已过期的注销记录 并重建布隆过滤器
+     */
+    @Scheduled(fixedDelayString = "${gateway.revocation.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        long now = Instant.now().getEpochSecond();
+        revoked.values().removeIf(exp -> exp < now);
+        BloomFilter<CharSequence> filter = newBloomFilter();
+        revoked.keySet().forEach(filter::put);
+        bloomFilter = filter;
+        // add 不加锁 , 替换前写入旧布隆过滤器的 jti 已在精确集合中 , 替换后再写一次
+        revoked.keySet().forEach(filter::put);
+    }
+
+    /**
+     * 在 redis 回调线程上调用 , 不与 sync 共用锁 , 避免等待 sync 的 redis 读取
+     */
+    private void add(String jti, long expiresAt) {
+        if (expiresAt < Instant.now().getEpochSecond()) {
+            return;
+        }
+        // 先写精确集合 再写布隆过滤器 , 保证布隆命中时精确集合中一定已存在
+        revoked.put(jti, expiresAt);
+        bloomFilter.put(jti);
+    }
+
+    private BloomFilter<CharSequence> newBloomFilter() {
+        return BloomFilter.create(Funnels.stringFunnel(Charsets.UTF_8), expectedInsertions, 0.001);
+    }
+}
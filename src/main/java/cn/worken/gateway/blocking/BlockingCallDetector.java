@@ -0,0 +1,151 @@
+package cn.worken.gateway.blocking;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingMethod;
+
+/**
+ * 非阻塞线程 (netty 事件循环 , reactor parallel 等) 上的阻塞调用检测 , 基于 BlockHound
+ * <p>
+ * 按 (网关代码中的调用位置 , 阻塞方法) 计数 , 每个位置保留第一次的调用栈 ; 只记录不抛出异常 , 不影响请求
+ */
+@Slf4j
+public final class BlockingCallDetector {
+
+    /**
+     * blockhound 默认不打入发布包 , 使用前先判断是否存在
+     */
+    public static final String BLOCK_HOUND_CLASS = "reactor.blockhound.BlockHound";
+
+    private static final String PACKAGE = "cn.worken.gateway.";
+    private static final String SELF_PACKAGE = BlockingCallDetector.class.getPackage().getName() + '.';
+    /**
+     * 最多记录的调用位置 , 超出后计入 other
+     */
+    private static final int MAX_SITES = 256;
+    private static final String OVERFLOW_SITE = "other";
+
+    private static final Map<String, LongAdder> COUNTS = new ConcurrentHashMap<>();
+    private static final Map<String, String> STACK_TRACES = new ConcurrentHashMap<>();
+    /**
+     * 记录过程中打印日志也可能阻塞 , 防止重入
+     */
+    private static final ThreadLocal<Boolean> RECORDING = new ThreadLocal<>();
+    private static volatile boolean installed;
+
+    private BlockingCallDetector() {
+    }
+
+    /**
+     * 安装检测 , 只能安装一次
+     *
+     * @param allowed 允许阻塞的方法 类名#方法名
+     * @return 本次是否安装
+     */
+    public static synchronized boolean install(Collection<String> allowed) {
+        if (installed) {
+            return false;
+        }
+        BlockHound.Builder builder = BlockHound.builder();
+        for (String entry : allowed) {
+            int index = entry.indexOf('#');
+            if (index <= 0 || index == entry.length() - 1) {
+                log.warn("忽略格式错误的阻塞调用允许项 : {}", entry);
+                continue;
+            }
+            builder.allowBlockingCallsInside(entry.substring(0, index).trim(), entry.substring(index + 1).trim());
+        }
+        builder.blockingMethodCallback(BlockingCallDetector::record).install();
+        installed = true;
+        log.info("阻塞调用检测已开启 , 允许项 {} 个", allowed.size());
+        return true;
+    }
+
+    public static boolean isInstalled() {
+        return installed;
+    }
+
+    /**
+     * 各调用位置的阻塞次数 , 按次数倒序
+     */
+    public static Map<String, Long> counts() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        COUNTS.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> e) -> e.getValue().sum()).reversed())
+            .forEach(e -> result.put(e.getKey(), e.getValue().sum()));
+        return result;
+    }
+
+    /**
+     * 各调用位置第一次阻塞时的调用栈
+     */
+    public static Map<String, String> stackTraces() {
+        return new LinkedHashMap<>(STACK_TRACES);
+    }
+
+    public static void reset() {
+        COUNTS.clear();
+        STACK_TRACES.clear();
+    }
+
+    private static void record(BlockingMethod method) {
+        if (RECORDING.get() != null) {
+            return;
+        }
+        RECORDING.set(Boolean.TRUE);
+        try {
+            Exception trace = new Exception("阻塞调用 " + method + " , 线程 " + Thread.currentThread().getName());
+            String key = site(trace.getStackTrace()) + " -> " + method;
+            LongAdder counter = COUNTS.get(key);
+            if (counter == null) {
+                if (COUNTS.size() >= MAX_SITES) {
+                    key = OVERFLOW_SITE;
+                }
+                LongAdder created = new LongAdder();
+                counter = COUNTS.putIfAbsent(key, created);
+                if (counter == null) {
+                    counter = created;
+                    StringWriter writer = new StringWriter();
+                    trace.printStackTrace(new PrintWriter(writer));
+                    STACK_TRACES.put(key, writer.toString());
+                    log.warn("检测到非阻塞线程上的阻塞调用 : {}", key, trace);
+                }
+            }
+            counter.increment();
+        } finally {
+            RECORDING.remove();
+        }
+    }
+
+    /**
+     * 调用栈中第一个网关代码的位置 , 没有时使用阻塞方法的直接调用者
+     */
+    private static String site(StackTraceElement[] stackTrace) {
+        StackTraceElement caller = null;
+        for (StackTraceElement element : stackTrace) {
+            String className = element.getClassName();
+            if (className.startsWith(SELF_PACKAGE) || className.startsWith("reactor.blockhound.")) {
+                continue;
+            }
+            if (caller == null) {
+                caller = element;
+            }
+            if (className.startsWith(PACKAGE)) {
+                return format(element);
+            }
+        }
+        return caller != null ? format(caller) : "unknown";
+    }
+
+    private static String format(StackTraceElement element) {
+        return element.getClassName() + '#' + element.getMethodName() + ':' + element.getLineNumber();
+    }
+}
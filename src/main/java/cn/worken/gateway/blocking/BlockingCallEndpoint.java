@@ -0,0 +1,32 @@
+package cn.worken.gateway.blocking;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+
+/**
+ * 阻塞调用检测结果 /actuator/blockingcalls , DELETE 清空计数 ; classpath 中没有 blockhound 时不注册
+ */
+@Component
+@ConditionalOnClass(name = BlockingCallDetector.BLOCK_HOUND_CLASS)
+@Endpoint(id = "blockingcalls")
+public class BlockingCallEndpoint {
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("installed", BlockingCallDetector.isInstalled());
+        result.put("counts", BlockingCallDetector.counts());
+        result.put("stackTraces", BlockingCallDetector.stackTraces());
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        BlockingCallDetector.reset();
+    }
+}
@@ -0,0 +1,32 @@
+package cn.worken.gateway.blocking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.util.ClassUtils;
+
+/**
+ * 在创建 netty 服务之前安装阻塞调用检测 , 由启动类注册 ; 只读取本地配置及启动参数
+ * <p>
+ * 开启 : -Dgateway.blocking-detector.enabled=true ; blockhound 默认不打入发布包 , 需要 -P blockhound 打包
+ */
+@Slf4j
+public class BlockingDetectorInstaller implements ApplicationListener<ApplicationEnvironmentPreparedEvent> {
+
+    @Override
+    public void onApplicationEvent(ApplicationEnvironmentPreparedEvent event) {
+        Binder.get(event.getEnvironment())
+            .bind("gateway.blocking-detector", BlockingDetectorProperties.class)
+            .ifBound(properties -> {
+                if (!properties.isEnabled()) {
+                    return;
+                }
+                if (!ClassUtils.isPresent(BlockingCallDetector.BLOCK_HOUND_CLASS, getClass().getClassLoader())) {
+                    log.warn("classpath 中没有 blockhound , 阻塞调用检测未开启 , 需要 -P blockhound 打包");
+                    return;
+                }
+                BlockingCallDetector.install(properties.getAllowed());
+            });
+    }
+}
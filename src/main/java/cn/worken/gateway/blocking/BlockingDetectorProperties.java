@@ -0,0 +1,26 @@
+package cn.worken.gateway.blocking;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 阻塞调用检测配置 , 启动时读取 , 配置中心的修改不生效
+ */
+@Data
+@Component
+@ConfigurationProperties("gateway.blocking-detector")
+public class BlockingDetectorProperties {
+
+    /**
+     * 是否开启 , 开启后事件循环等非阻塞线程上的阻塞调用会被记录
+     */
+    private boolean enabled = false;
+
+    /**
+     * 允许阻塞的方法 , 格式 类名#方法名 , 调用栈中包含这些方法时不记录
+     */
+    private List<String> allowed = new ArrayList<>();
+}
@@ -0,0 +1,128 @@
+package cn.worken.gateway.cache;
+
+import cn.worken.gateway.cache.CacheRegistry.Entry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * 网关缓存管理
+ * <ul>
+ * <li>GET /actuator/gatewaycaches 所有缓存统计</li>
+ * <li>GET /actuator/gatewaycaches/{name} 缓存统计及部分 key , key 为凭证的缓存不返回 key</li>
+ * <li>POST /actuator/gatewaycaches/{name} {"keys": "a,b,c"} 预热</li>
+ * <li>DELETE /actuator/gatewaycaches/{name}?key= 清空 , 不传 key 时清空全部</li>
+ * </ul>
+ */
+@Component
+@Endpoint(id = "gatewaycaches")
+public class CacheEndpoint {
+
+    private static final int MAX_KEYS = 100;
+
+    private final CacheRegistry cacheRegistry;
+
+    public CacheEndpoint(CacheRegistry cacheRegistry) {
+        this.cacheRegistry = cacheRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> caches() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        cacheRegistry.caches().forEach((name, entry) -> result.put(name, stats(entry)));
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, Object> cache(@Selector String name) {
+        Entry entry = cacheRegistry.get(name);
+        if (entry == null) {
+            return null;
+        }
+        Map<String, Object> result = stats(entry);
+        if (!entry.isListKeys()) {
+            return result;
+        }
+        List<String> keys = new ArrayList<>();
+        for (Object key : entry.getCache().asMap().keySet()) {
+            if (keys.size() >= MAX_KEYS) {
+                break;
+            }
+            keys.add(String.valueOf(key));
+        }
+        result.put("keys", keys);
+        return result;
+    }
+
+    @WriteOperation
+    public Map<String, Object> warm(@Selector String name, String keys) {
+        Entry entry = cacheRegistry.get(name);
+        if (entry == null) {
+            return null;
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (entry.getWarmer() == null) {
+            result.put("message", name + " 不支持预热");
+            return result;
+        }
+        int warmed = 0;
+        Map<String, String> failed = new LinkedHashMap<>();
+        for (String key : keys.split(",")) {
+            String trimmed = key.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            try {
+                entry.getWarmer().accept(trimmed);
+                warmed++;
+            } catch (Exception e) {
+                failed.put(trimmed, e.getMessage());
+            }
+        }
+        result.put("warmed", warmed);
+        result.put("failed", failed);
+        result.put("size", entry.getCache().size());
+        return result;
+    }
+
+    @DeleteOperation
+    public Map<String, Object> invalidate(@Selector String name, @Nullable String key) {
+        Entry entry = cacheRegistry.get(name);
+        if (entry == null) {
+            return null;
+        }
+        Cache<?, ?> cache = entry.getCache();
+        if (key == null) {
+            cache.invalidateAll();
+        } else {
+            cache.asMap().keySet().removeIf(k -> key.equals(String.valueOf(k)));
+        }
+        return stats(entry);
+    }
+
+    private static Map<String, Object> stats(Entry entry) {
+        Cache<?, ?> cache = entry.getCache();
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.size());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("loadCount", stats.loadCount());
+        result.put("averageLoadPenaltyMillis", stats.averageLoadPenalty() / 1000000);
+        result.put("warmable", entry.getWarmer() != null);
+        result.put("listKeys", entry.isListKeys());
+        return result;
+    }
+}
@@ -0,0 +1,91 @@
+package cn.worken.gateway.cache;
+
+import com.google.common.cache.Cache;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+/**
+ * 网关本地缓存注册中心 , 缓存需要使用 recordStats 构建 , 注册后命中率 , 大小 , 淘汰数导出到 micrometer (cache.* 指标) ,
+ * 并可以通过 /actuator/gatewaycaches 查看 , 预热 , 清空
+ */
+@Component
+public class CacheRegistry {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Entry> caches = new ConcurrentSkipListMap<>();
+
+    public CacheRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <K, V> Cache<K, V> register(String name, Cache<K, V> cache) {
+        return register(name, cache, null);
+    }
+
+    /**
+     * @param warmer 根据 key 加载到缓存 , 不支持预热时为 null
+     */
+    public <K, V> Cache<K, V> register(String name, Cache<K, V> cache, Consumer<String> warmer) {
+        return register(name, cache, warmer, true);
+    }
+
+    /**
+     * 注册缓存 , 同名缓存 (例如 RefreshScope 重新创建的 bean) 会替换之前的缓存及指标
+     *
+     * @param warmer 根据 key 加载到缓存 , 不支持预热时为 null
+     * @param listKeys 是否允许通过 /actuator/gatewaycaches/{name} 查看 key , key 为 token 等凭证时必须为 false
+     */
+    public <K, V> Cache<K, V> register(String name, Cache<K, V> cache, Consumer<String> warmer, boolean listKeys) {
+        if (caches.put(name, new Entry(cache, warmer, listKeys)) != null) {
+            removeMeters(name);
+        }
+        GuavaCacheMetrics.monitor(meterRegistry, cache, name);
+        return cache;
+    }
+
+    /**
+     * 移除缓存及其指标 , 例如服务下线后移除该服务的缓存
+     */
+    public void unregister(String name) {
+        if (caches.remove(name) != null) {
+            removeMeters(name);
+        }
+    }
+
+    public Map<String, Entry> caches() {
+        return Collections.unmodifiableMap(caches);
+    }
+
+    public Entry get(String name) {
+        return caches.get(name);
+    }
+
+    private void removeMeters(String name) {
+        List<Meter> meters = new ArrayList<>();
+        for (Meter meter : meterRegistry.getMeters()) {
+            if (meter.getId().getName().startsWith("cache.") && name.equals(meter.getId().getTag("cache"))) {
+                meters.add(meter);
+            }
+        }
+        meters.forEach(meterRegistry::remove);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+
+        private final Cache<?, ?> cache;
+        private final Consumer<String> warmer;
+        private final boolean listKeys;
+    }
+}
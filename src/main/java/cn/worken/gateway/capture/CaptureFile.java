@@ -0,0 +1,198 @@
+package cn.worken.gateway.capture;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+
+/**
+ * 采样文件格式 , 大端序
+ * <p>
+ * 文件头 16 字节 : magic(4) version(2) 开始时间毫秒(8) 保留(2)
+ * <p>
+ * 记录 : 记录长度(2) offsetMillis(4) method(1) tokenClass(1) status(2) headerMask(4) headerCount(2) bodySize(4)
+ * identity(4) 路径长度(2) 路径(utf-8) ; 记录长度为 0 表示文件结束
+ */
+@Slf4j
+public final class CaptureFile {
+
+    public static final int MAGIC = 0x47574350;
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_FIXED_SIZE = 26;
+    public static final int MAX_PATH_BYTES = 2048;
+    private static final HttpMethod[] METHODS = HttpMethod.values();
+
+    private CaptureFile() {
+    }
+
+    /**
+     * 内存映射追加写 , 多线程写入时先原子地预留位置 , 各自写入不重叠的区域 , 最后写入记录长度 ;
+     * 关闭时截断文件 , 使用读写锁保证截断后不再写入映射区域
+     */
+    public static class Writer implements Closeable {
+
+        private final Path file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final long startMillis;
+        private final AtomicInteger position = new AtomicInteger(HEADER_SIZE);
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private boolean closed;
+
+        public Writer(Path file, int maxBytes, long startMillis) throws IOException {
+            this.file = file;
+            this.startMillis = startMillis;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+            this.buffer = channel.map(MapMode.READ_WRITE, 0, maxBytes);
+            buffer.putInt(0, MAGIC);
+            buffer.putShort(4, VERSION);
+            buffer.putLong(6, startMillis);
+        }
+
+        public long getStartMillis() {
+            return startMillis;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        /**
+         * @return 文件已满或已关闭时返回 false
+         */
+        public boolean append(CaptureRecord record) {
+            lock.readLock().lock();
+            try {
+                return !closed && write(record);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private boolean write(CaptureRecord record) {
+            byte[] path = record.getPath().getBytes(StandardCharsets.UTF_8);
+            int pathLength = Math.min(path.length, MAX_PATH_BYTES);
+            int size = RECORD_FIXED_SIZE + pathLength;
+            int offset = position.getAndAdd(size);
+            // 保留 2 字节作为结束标记
+            if (offset + size + 2 > buffer.capacity()) {
+                position.set(buffer.capacity());
+                return false;
+            }
+            buffer.putInt(offset + 2, record.getOffsetMillis());
+            buffer.put(offset + 6, (byte) (record.getMethod() == null ? -1 : record.getMethod().ordinal()));
+            buffer.put(offset + 7, (byte) record.getTokenClass().ordinal());
+            buffer.putShort(offset + 8, (short) record.getStatus());
+            buffer.putInt(offset + 10, record.getHeaderMask());
+            buffer.putShort(offset + 14, (short) Math.min(record.getHeaderCount(), Short.MAX_VALUE));
+            buffer.putInt(offset + 16, record.getBodySize());
+            buffer.putInt(offset + 20, record.getIdentity());
+            buffer.putShort(offset + 24, (short) pathLength);
+            for (int i = 0; i < pathLength; i++) {
+                buffer.put(offset + RECORD_FIXED_SIZE + i, path[i]);
+            }
+            buffer.putShort(offset, (short) size);
+            return true;
+        }
+
+        /**
+         * 刷盘并截断未使用的部分
+         */
+        @Override
+        public void close() throws IOException {
+            lock.writeLock().lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            buffer.force();
+            int used = Math.min(position.get(), buffer.capacity() - 2);
+            try {
+                channel.truncate(used + 2L);
+            } catch (IOException e) {
+                log.warn("采样文件截断失败 {} : {}", file, e.getMessage());
+            }
+            channel.close();
+        }
+    }
+
+    /**
+     * 顺序读取采样文件
+     */
+    public static class Reader implements Closeable {
+
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final long startMillis;
+        private int position = HEADER_SIZE;
+
+        public Reader(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                channel.close();
+                throw new IOException("不是采样文件 : " + file);
+            }
+            if (buffer.getShort(4) != VERSION) {
+                channel.close();
+                throw new IOException("不支持的采样文件版本 : " + buffer.getShort(4));
+            }
+            this.startMillis = buffer.getLong(6);
+        }
+
+        public long getStartMillis() {
+            return startMillis;
+        }
+
+        /**
+         * @return 读完时返回 null
+         */
+        public CaptureRecord next() {
+            if (position + 2 > buffer.capacity()) {
+                return null;
+            }
+            int size = buffer.getShort(position) & 0xFFFF;
+            if (size < RECORD_FIXED_SIZE || position + size > buffer.capacity()) {
+                return null;
+            }
+            CaptureRecord record = new CaptureRecord();
+            record.setOffsetMillis(buffer.getInt(position + 2));
+            int method = buffer.get(position + 6);
+            record.setMethod(method >= 0 && method < METHODS.length ? METHODS[method] : null);
+            record.setTokenClass(TokenClass.of(buffer.get(position + 7)));
+            record.setStatus(buffer.getShort(position + 8) & 0xFFFF);
+            record.setHeaderMask(buffer.getInt(position + 10));
+            record.setHeaderCount(buffer.getShort(position + 14));
+            record.setBodySize(buffer.getInt(position + 16));
+            record.setIdentity(buffer.getInt(position + 20));
+            int pathLength = buffer.getShort(position + 24) & 0xFFFF;
+            byte[] path = new byte[pathLength];
+            for (int i = 0; i < pathLength; i++) {
+                path[i] = buffer.get(position + RECORD_FIXED_SIZE + i);
+            }
+            record.setPath(new String(path, StandardCharsets.UTF_8));
+            position += size;
+            return record;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
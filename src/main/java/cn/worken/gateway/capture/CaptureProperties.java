@@ -0,0 +1,28 @@
+package cn.worken.gateway.capture;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 流量采样配置 , 修改后无需重启 , 关闭时结束当前文件
+ */
+@Data
+@Component
+@ConfigurationProperties("gateway.capture")
+public class CaptureProperties {
+
+    private boolean enabled = false;
+    /**
+     * 采样比例 0 ~ 1
+     */
+    private double sampleRate = 0.01;
+    /**
+     * 采样文件目录 , 每次开启生成一个新文件
+     */
+    private String directory = "/logs/application/capture";
+    /**
+     * 单个文件上限 , 写满后停止采样 , 最大 1024
+     */
+    private int maxFileSizeMb = 256;
+}
@@ -0,0 +1,42 @@
+package cn.worken.gateway.capture;
+
+import lombok.Data;
+import org.springframework.http.HttpMethod;
+
+/**
+ * 一条采样请求 , 只包含请求特征 , 不包含 token , 参数及请求体内容
+ */
+@Data
+public class CaptureRecord {
+
+    /**
+     * 相对文件开始时间的毫秒数
+     */
+    private int offsetMillis;
+    /**
+     * 无法识别的请求方法为 null
+     */
+    private HttpMethod method;
+    private TokenClass tokenClass;
+    /**
+     * 响应状态码 , 未写入时为 0 ; 网关异常返回 200 , 错误码在响应体中
+     */
+    private int status;
+    /**
+     * @see HeaderShape
+     */
+    private int headerMask;
+    private int headerCount;
+    /**
+     * 请求体长度 , Content-Length 未知时为 -1
+     */
+    private int bodySize;
+    /**
+     * 用户名 / client id 的加盐 hash , 只用于区分不同用户 , 没有时为 0
+     */
+    private int identity;
+    /**
+     * 原始请求路径 , 不含参数
+     */
+    private String path;
+}
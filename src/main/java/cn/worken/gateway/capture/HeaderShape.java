@@ -0,0 +1,74 @@
+package cn.worken.gateway.capture;
+
+import cn.worken.gateway.config.constant.GatewayTransHeader;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+/**
+ * 请求头特征 , 只记录影响网关处理的请求头是否存在 , 不记录内容
+ */
+public final class HeaderShape {
+
+    public static final int AUTHORIZATION = 1;
+    public static final int TOKEN_COOKIE = 1 << 1;
+    public static final int REFRESH_TOKEN_COOKIE = 1 << 2;
+    public static final int X_FORWARDED_FOR = 1 << 3;
+    public static final int USER_AGENT = 1 << 4;
+    public static final int ACCEPT_ENCODING = 1 << 5;
+    public static final int CONTENT_TYPE_JSON = 1 << 6;
+    public static final int CONTENT_TYPE_FORM = 1 << 7;
+    public static final int CONTENT_TYPE_MULTIPART = 1 << 8;
+    public static final int QUERY = 1 << 9;
+    public static final int REPEAT_SUBMIT_KEY = 1 << 10;
+    /**
+     * 客户端携带了网关请求头 , 需要移除
+     */
+    public static final int TRANS_HEADERS = 1 << 11;
+
+    private HeaderShape() {
+    }
+
+    /**
+     * token 相关的 cookie 由调用方根据 TokenExtractor 的解析结果补充
+     */
+    public static int of(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        int mask = 0;
+        if (headers.containsKey(HttpHeaders.AUTHORIZATION)) {
+            mask |= AUTHORIZATION;
+        }
+        if (headers.containsKey("X-Forwarded-For")) {
+            mask |= X_FORWARDED_FOR;
+        }
+        if (headers.containsKey(HttpHeaders.USER_AGENT)) {
+            mask |= USER_AGENT;
+        }
+        if (headers.containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+            mask |= ACCEPT_ENCODING;
+        }
+        MediaType contentType = headers.getContentType();
+        if (contentType != null) {
+            if (MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
+                mask |= CONTENT_TYPE_JSON;
+            } else if (MediaType.APPLICATION_FORM_URLENCODED.isCompatibleWith(contentType)) {
+                mask |= CONTENT_TYPE_FORM;
+            } else if (MediaType.MULTIPART_FORM_DATA.isCompatibleWith(contentType)) {
+                mask |= CONTENT_TYPE_MULTIPART;
+            }
+        }
+        if (request.getURI().getRawQuery() != null) {
+            mask |= QUERY;
+            if (request.getQueryParams().containsKey("repeatSubmitKey")) {
+                mask |= REPEAT_SUBMIT_KEY;
+            }
+        }
+        if (headers.containsKey(GatewayTransHeader.X_GATEWAY_AUTHENTICATION_INFO)
+            || headers.containsKey(GatewayTransHeader.X_IDENTIFIES)
+            || headers.containsKey(GatewayTransHeader.X_OPENAPI)
+            || headers.containsKey(GatewayTransHeader.X_GATEWAY_IDENTITY)) {
+            mask |= TRANS_HEADERS;
+        }
+        return mask;
+    }
+}
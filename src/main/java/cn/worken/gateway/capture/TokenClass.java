@@ -0,0 +1,33 @@
+package cn.worken.gateway.capture;
+
+/**
+ * 请求 token 类型
+ */
+public enum TokenClass {
+    /**
+     * 未携带 token
+     */
+    NONE,
+    /**
+     * 白名单接口 , 不校验 token
+     */
+    WHITELIST,
+    /**
+     * 平台用户
+     */
+    USER,
+    /**
+     * client
+     */
+    CLIENT,
+    /**
+     * 携带 token 但未通过校验 , 或在校验前被拒绝
+     */
+    UNVERIFIED;
+
+    private static final TokenClass[] VALUES = values();
+
+    public static TokenClass of(int ordinal) {
+        return ordinal >= 0 && ordinal < VALUES.length ? VALUES[ordinal] : NONE;
+    }
+}
@@ -0,0 +1,167 @@
+package cn.worken.gateway.capture;
+
+import cn.worken.gateway.auth.TokenExtractor;
+import cn.worken.gateway.config.GatewayWebExceptionHandler;
+import cn.worken.gateway.config.constant.ReqContextConstant;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * 按比例采样请求特征写入本地文件 , 供 src/loadtest 中的 ReplayMain 按原始路径分布及 token 类型回放
+ * <p>
+ * 文件在启动或配置中心开启采样时创建 , 不在请求线程上创建 ; 写满或关闭采样后结束 , 再次开启时创建新文件
+ */
+@Slf4j
+@Component
+public class TrafficCapture {
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final CaptureProperties properties;
+    private final TokenExtractor tokenExtractor;
+    private volatile CaptureFile.Writer writer;
+    /**
+     * 用户标识 hash , 每个文件使用不同的盐
+     */
+    private volatile HashFunction identityHash;
+    /**
+     * 当前文件已写满 或 创建失败 , 关闭采样后重置
+     */
+    private volatile boolean stopped;
+
+    public TrafficCapture(CaptureProperties properties, TokenExtractor tokenExtractor) {
+        this.properties = properties;
+        this.tokenExtractor = tokenExtractor;
+    }
+
+    /**
+     * 是否采样当前请求 , 文件创建完成前不采样
+     */
+    public boolean sample() {
+        return writer != null && !stopped && properties.isEnabled()
+            && ThreadLocalRandom.current().nextDouble() < properties.getSampleRate();
+    }
+
+    /**
+     * 请求结束后记录 , token 类型及用户标识从鉴权后的 attribute 中获取
+     *
+     * @param startMillis 请求开始时间
+     * @param error 请求链路抛出的异常 , 此时还未由 GatewayWebExceptionHandler 写入响应 , 按异常类型记录响应码
+     */
+    public void record(ServerWebExchange exchange, long startMillis, Throwable error) {
+        CaptureFile.Writer current = writer;
+        if (current == null) {
+            return;
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        CaptureRecord record = new CaptureRecord();
+        record.setOffsetMillis((int) Math.max(0, startMillis - current.getStartMillis()));
+        record.setMethod(request.getMethod());
+        record.setTokenClass(tokenClass(exchange));
+        HttpStatus status = error != null ? GatewayWebExceptionHandler.resolveStatus(error)
+            : exchange.getResponse().getStatusCode();
+        record.setStatus(status != null ? status.value() : 0);
+        int headerMask = HeaderShape.of(request);
+        if (tokenExtractor.isCookieToken(exchange)) {
+            headerMask |= HeaderShape.TOKEN_COOKIE;
+        }
+        if (tokenExtractor.refreshToken(exchange) != null) {
+            headerMask |= HeaderShape.REFRESH_TOKEN_COOKIE;
+        }
+        record.setHeaderMask(headerMask);
+        record.setHeaderCount(request.getHeaders().size());
+        record.setBodySize((int) Math.min(request.getHeaders().getContentLength(), Integer.MAX_VALUE));
+        Object identifies = exchange.getAttribute(ReqContextConstant.X_IDENTIFIES);
+        if (identifies == null) {
+            identifies = exchange.getAttribute(ReqContextConstant.X_OPENAPI);
+        }
+        record.setIdentity(identifies == null ? 0
+            : identityHash.hashString(identifies.toString(), StandardCharsets.UTF_8).asInt());
+        record.setPath(request.getURI().getRawPath());
+        // 写入失败且文件未被关闭 , 说明已写满
+        if (!current.append(record) && writer == current) {
+            stopped = true;
+            log.warn("采样文件已写满 , 停止采样 : {}", current.getFile());
+        }
+    }
+
+    private TokenClass tokenClass(ServerWebExchange exchange) {
+        if (exchange.getAttributeOrDefault(ReqContextConstant.IS_WHITE_API, false)) {
+            return TokenClass.WHITELIST;
+        }
+        Boolean isUser = exchange.getAttribute(ReqContextConstant.SECURITY_IS_USER);
+        if (isUser != null) {
+            return isUser ? TokenClass.USER : TokenClass.CLIENT;
+        }
+        return tokenExtractor.token(exchange) != null ? TokenClass.UNVERIFIED : TokenClass.NONE;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (properties.isEnabled()) {
+            open();
+        }
+    }
+
+    /**
+     * 配置中心开启采样后创建文件 , 关闭采样后结束当前文件
+     */
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void onRefresh() {
+        if (properties.isEnabled()) {
+            open();
+        } else {
+            close();
+        }
+    }
+
+    private synchronized void open() {
+        if (writer != null || stopped) {
+            return;
+        }
+        Path file = Paths.get(properties.getDirectory(),
+            "gateway-capture-" + LocalDateTime.now().format(FILE_TIME) + ".bin");
+        int maxBytes = Math.max(1, Math.min(properties.getMaxFileSizeMb(), 1024)) * 1024 * 1024;
+        try {
+            Files.createDirectories(file.getParent());
+            identityHash = Hashing.murmur3_32(ThreadLocalRandom.current().nextInt());
+            writer = new CaptureFile.Writer(file, maxBytes, System.currentTimeMillis());
+            log.info("开始流量采样 比例:{} 文件:{}", properties.getSampleRate(), file);
+        } catch (IOException e) {
+            stopped = true;
+            log.error("创建采样文件失败 , 停止采样 : {}", file, e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        CaptureFile.Writer current = writer;
+        writer = null;
+        stopped = false;
+        if (current != null) {
+            try {
+                current.close();
+                log.info("流量采样结束 : {}", current.getFile());
+            } catch (IOException e) {
+                log.error("关闭采样文件失败 : {}", current.getFile(), e);
+            }
+        }
+    }
+}
@@ -2,12 +2,16 @@ package cn.worken.gateway.config;
 
 import java.time.Duration;
 
+import cn.worken.gateway.identity.IdentitySigner;
 import cn.worken.gateway.util.SnowflakeIdWorker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.util.Base64Utils;
 import org.springframework.web.client.RestTemplate;
 
 /**
@@ -38,4 +42,14 @@ public class BeanConfig {
     public SnowflakeIdWorker idWorker() {
         return new SnowflakeIdWorker(1, 1);
     }
+
+    /**
+     * 签名身份头 , 配置了密钥才开启
+     */
+    @Bean
+    @ConditionalOnProperty("gateway.identity.secret")
+    public IdentitySigner identitySigner(@Value("${gateway.identity.key-id:1}") int keyId,
+        @Value("${gateway.identity.secret}") String secret) {
+        return new IdentitySigner(keyId, Base64Utils.decodeFromString(secret));
+    }
 }
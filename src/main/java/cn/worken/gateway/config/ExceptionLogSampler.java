@@ -0,0 +1,71 @@
+package cn.worken.gateway.config;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 异常日志采样 , 按 异常类型 + 请求路径 聚合
+ * <p>
+ * 每个统计周期内同一个 key 只打印前 N 次完整堆栈 , 之后只计数 , 周期结束时输出被省略的次数
+ */
+@Slf4j
+@Component
+public class ExceptionLogSampler {
+
+    /**
+     * key 数量超出上限后统一计入该 key , 防止路径中带 id 时 key 无限增长
+     */
+    private static final String OVERFLOW_KEY = "<overflow>";
+
+    private final int limit;
+    private final int maxKeys;
+    private final Map<String, AtomicInteger> counters = new ConcurrentHashMap<>();
+
+    public ExceptionLogSampler(@Value("${gateway.exception-log.limit:5}") int limit,
+        @Value("${gateway.exception-log.max-keys:2048}") int maxKeys) {
+        this.limit = limit;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * 记录一次异常
+     *
+     * @param ex 异常
+     * @param path 请求路径
+     * @return 是否需要打印完整日志
+     */
+    public boolean sample(Throwable ex, String path) {
+        String key = ex.getClass().getName() + ' ' + path;
+        AtomicInteger counter = counters.get(key);
+        if (counter == null) {
+            if (counters.size() >= maxKeys) {
+                key = OVERFLOW_KEY;
+            }
+            counter = counters.computeIfAbsent(key, k -> new AtomicInteger());
+        }
+        return counter.incrementAndGet() <= limit;
+    }
+
+    /**
+     * 周期结束 输出被省略的异常次数 并重置计数
+     */
+    @Scheduled(fixedDelayString = "${gateway.exception-log.interval-ms:60000}")
+    public void flush() {
+        Iterator<Map.Entry<String, AtomicInteger>> iterator = counters.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, AtomicInteger> entry = iterator.next();
+            iterator.remove();
+            int suppressed = entry.getValue().get() - limit;
+            if (suppressed > 0) {
+                log.error("[全局异常处理]统计周期内异常[{}]共出现{}次,省略{}次堆栈", entry.getKey(), entry.getValue().get(),
+                    suppressed);
+            }
+        }
+    }
+}
@@ -30,8 +30,8 @@ public class GatewayError {
     @Bean
     @Order(Ordered.HIGHEST_PRECEDENCE)
     public ErrorWebExceptionHandler errorWebExceptionHandler(ObjectProvider<List<ViewResolver>> viewResolversProvider,
-        ServerCodecConfigurer serverCodecConfigurer) {
-        GatewayWebExceptionHandler jsonExceptionHandler = new GatewayWebExceptionHandler();
+        ServerCodecConfigurer serverCodecConfigurer, ExceptionLogSampler exceptionLogSampler) {
+        GatewayWebExceptionHandler jsonExceptionHandler = new GatewayWebExceptionHandler(exceptionLogSampler);
         jsonExceptionHandler.setViewResolvers(viewResolversProvider.getIfAvailable(Collections::emptyList));
         jsonExceptionHandler.setMessageWriters(serverCodecConfigurer.getWriters());
         jsonExceptionHandler.setMessageReaders(serverCodecConfigurer.getReaders());
@@ -2,16 +2,17 @@ package cn.worken.gateway.config;
 
 import cn.worken.gateway.config.constant.GatewayCode;
 import cn.worken.gateway.config.exception.GatewayException;
+import cn.worken.gateway.jfr.GatewayEvent;
+import cn.worken.gateway.jfr.GatewayEvents;
+import cn.worken.gateway.jfr.GatewayEvents.Type;
+import cn.worken.gateway.util.GatewayUtils;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.google.common.collect.ImmutableMap;
-import java.net.InetSocketAddress;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.boot.web.reactive.error.ErrorWebExceptionHandler;
 import org.springframework.cloud.gateway.support.NotFoundException;
 import org.springframework.http.HttpStatus;
@@ -60,6 +61,15 @@ public class GatewayWebExceptionHandler implements ErrorWebExceptionHandler {
      */
     private final ThreadLocal<Map<String, Object>> exceptionHandlerResult = new ThreadLocal<>();
 
+    /**
+     * 异常日志采样
+     */
+    private final ExceptionLogSampler exceptionLogSampler;
+
+    public GatewayWebExceptionHandler(ExceptionLogSampler exceptionLogSampler) {
+        this.exceptionLogSampler = exceptionLogSampler;
+    }
+
     /**
      * 参考AbstractErrorWebExceptionHandler
      */
@@ -85,36 +95,24 @@ public class GatewayWebExceptionHandler implements ErrorWebExceptionHandler {
 
     @Override
     public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        GatewayEvent event = GatewayEvents.begin(Type.EXCEPTION);
         // 按照异常类型进行处理
-        HttpStatus httpStatus;
+        HttpStatus httpStatus = resolveStatus(ex);
         String body;
         if (ex instanceof NotFoundException) {
             // 服务未找到
-            httpStatus = HttpStatus.NOT_FOUND;
             body = "服务维护中 请稍等...";
         } else if (ex instanceof ResponseStatusException) {
-            ResponseStatusException responseStatusException = (ResponseStatusException) ex;
-            httpStatus = responseStatusException.getStatus();
-            body = responseStatusException.getMessage();
-            if (httpStatus == HttpStatus.NOT_FOUND) {
-                body = GatewayCode.API_NOT_EXIST.getMessage();
-            }
+            body = httpStatus == HttpStatus.NOT_FOUND ? GatewayCode.API_NOT_EXIST.getMessage() : ex.getMessage();
         } else if (ex instanceof AuthenticationException) {
             // 鉴权失败
-            httpStatus = HttpStatus.UNAUTHORIZED;
             body = "用户未认证!";
-        } else if (ex instanceof GatewayException) {
-            httpStatus = HttpStatus.valueOf(((GatewayException) ex).getCode());
-            body = ex.getMessage();
-        } else if (ex instanceof IllegalArgumentException) {
-            httpStatus = HttpStatus.INTERNAL_SERVER_ERROR;
+        } else if (ex instanceof GatewayException || ex instanceof IllegalArgumentException) {
             body = ex.getMessage();
         } else if (ex instanceof BlockException) {
-            httpStatus = HttpStatus.TOO_MANY_REQUESTS;
             body = "您的请求过快,请稍后再试!";
         } else {
             // 其他异常
-            httpStatus = HttpStatus.INTERNAL_SERVER_ERROR;
             body = "系统异常!";
         }
         //封装响应体,此body可修改为自己的jsonBody
@@ -127,8 +125,13 @@ public class GatewayWebExceptionHandler implements ErrorWebExceptionHandler {
         //错误记录
         ServerHttpRequest request = exchange.getRequest();
         // ip信息
-        String ipAddress = getIpAddress(request);
-        log.error("[全局异常处理]异常请求路径:{},记录异常信息:{},请求ip:{}", request.getPath(), ex.getMessage(), ipAddress, ex);
+        String path = request.getPath().value();
+        // 同类异常周期内只打印前几次堆栈 , 其余只计数
+        if (exceptionLogSampler.sample(ex, path)) {
+            String ipAddress = GatewayUtils.getIpAddress(exchange);
+            log.error("[全局异常处理]异常请求路径:{},记录异常信息:{},请求ip:{}", path, ex.getMessage(), ipAddress, ex);
+        }
+        event.end(GatewayUtils.getServiceName(exchange), path, ex.getClass().getSimpleName());
         // 参考AbstractErrorWebExceptionHandler
         if (exchange.getResponse().isCommitted()) {
             return Mono.error(ex);
@@ -143,28 +146,24 @@ public class GatewayWebExceptionHandler implements ErrorWebExceptionHandler {
 
     }
 
-    private static String getIpAddress(ServerHttpRequest request) {
-        //未知ip
-        String unknown = "unknown";
-        String ip = request.getHeaders().getFirst("X-Real-IP");
-        if (!StringUtils.isBlank(ip) && !unknown.equalsIgnoreCase(ip)) {
-            return ip;
-        }
-        ip = request.getHeaders().getFirst("X-Forwarded-For");
-        if (!StringUtils.isBlank(ip) && !unknown.equalsIgnoreCase(ip)) {
-            // 多次反向代理后会有多个IP值，第一个为真实IP。
-            int index = ip.indexOf(',');
-            if (index != -1) {
-                return ip.substring(0, index);
-            } else {
-                return ip;
-            }
-        } else {
-            return Optional.ofNullable(request.getRemoteAddress()).map(InetSocketAddress::getHostString).orElse("");
+    /**
+     * 异常对应的响应码 , 写入响应体的 code ; 请求结束时异常还未处理 , 记录请求结果的 filter 也使用该方法
+     */
+    public static HttpStatus resolveStatus(Throwable ex) {
+        if (ex instanceof NotFoundException) {
+            return HttpStatus.NOT_FOUND;
+        } else if (ex instanceof ResponseStatusException) {
+            return ((ResponseStatusException) ex).getStatus();
+        } else if (ex instanceof AuthenticationException) {
+            return HttpStatus.UNAUTHORIZED;
+        } else if (ex instanceof GatewayException) {
+            return HttpStatus.valueOf(((GatewayException) ex).getCode());
+        } else if (ex instanceof BlockException) {
+            return HttpStatus.TOO_MANY_REQUESTS;
         }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
     }
 
-
     /**
      * 参考DefaultErrorWebExceptionHandler
      */
@@ -14,6 +14,10 @@ public enum GatewayCode {
     AUTHENTICATION_FAILURE(401, "没有有效认证信息"),
     //系统繁忙
     APPLICATION_BUSY(500, "系统繁忙"),
+    //请求过快
+    TOO_MANY_REQUESTS(429, "您的请求过快,请稍后再试!"),
+    //服务过载
+    SERVICE_UNAVAILABLE(503, "服务繁忙,请稍后再试"),
     //表单重复提交
     REPEAT_SUBMIT(500, "表单重复提交");
 
@@ -1,5 +1,7 @@
 package cn.worken.gateway.config.constant;
 
+import cn.worken.gateway.identity.IdentityVerifier;
+
 /**
  * 服务流转添加 header
  *
@@ -16,4 +18,9 @@ public interface GatewayTransHeader {
     String X_IDENTIFIES= "X_IDENTIFIES";
 
     String X_OPENAPI= "X_OPENAPI";
+
+    /**
+     * hmac 签名的二进制身份信息 , 下游使用 identity 包校验
+     */
+    String X_GATEWAY_IDENTITY = IdentityVerifier.HEADER_NAME;
 }
@@ -26,4 +26,44 @@ public interface ReqContextConstant {
      * 请求账户唯一标识 , 如果是普通用户请求使用 username ; 如果是 client 请求使用 client_id
      */
     String X_IDENTIFIES= "X_IDENTIFIES";
+    /**
+     * 开放接口 app key (client_id) , 按配额限流
+     */
+    String X_OPENAPI = "X_OPENAPI";
+    /**
+     * 请求 token , 由 TokenExtractor 解析
+     */
+    String TOKEN = "TOKEN";
+    /**
+     * cookie 中的 refresh_token
+     */
+    String REFRESH_TOKEN = "REFRESH_TOKEN";
+    /**
+     * 是否已经解析过 token
+     */
+    String TOKEN_EXTRACTED = "TOKEN_EXTRACTED";
+    /**
+     * token 是否来自 cookie (内部用户)
+     */
+    String TOKEN_FROM_COOKIE = "TOKEN_FROM_COOKIE";
+    /**
+     * 经可信代理解析后的客户端 ip
+     */
+    String CLIENT_IP = "CLIENT_IP";
+    /**
+     * 请求阶段时间线
+     */
+    String REQUEST_TIMELINE = "REQUEST_TIMELINE";
+    /**
+     * 用户信息及序列化后的请求头
+     */
+    String CACHED_AUTHENTICATION = "CACHED_AUTHENTICATION";
+    /**
+     * 授权结果缓存 key , 未命中缓存时写入
+     */
+    String DECISION_CACHE_KEY = "DECISION_CACHE_KEY";
+    /**
+     * 资源校验结果 , 命中授权结果缓存时写入
+     */
+    String RESOURCE_ACCESS_STATUS = "RESOURCE_ACCESS_STATUS";
 }
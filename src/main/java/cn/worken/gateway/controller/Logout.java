@@ -0,0 +1,41 @@
+package cn.worken.gateway.controller;
+
+import cn.worken.gateway.auth.TokenRevocationList;
+import cn.worken.gateway.config.constant.ReqContextConstant;
+import java.time.Instant;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 退出登陆 , 注销当前 token
+ */
+@RestController
+@RequestMapping("/actuator/")
+public class Logout {
+
+    private final TokenRevocationList tokenRevocationList;
+
+    public Logout(TokenRevocationList tokenRevocationList) {
+        this.tokenRevocationList = tokenRevocationList;
+    }
+
+    @RequestMapping("logout")
+    public Mono<String> logout(ServerWebExchange exchange) {
+        Jwt jwt = exchange.getAttribute(ReqContextConstant.SECURITY_INFO_IN_REQ);
+        Mono<Void> revoke = Mono.empty();
+        if (jwt != null && jwt.getId() != null) {
+            Instant expiresAt = jwt.getExpiresAt() != null ? jwt.getExpiresAt() : Instant.now().plusSeconds(86400);
+            revoke = tokenRevocationList.revoke(jwt.getId(), expiresAt);
+        }
+        return revoke.then(Mono.fromCallable(() -> {
+            // 清空cookie
+            exchange.getResponse().addCookie(ResponseCookie.from("token", "").maxAge(0).path("/").build());
+            exchange.getResponse().addCookie(ResponseCookie.from("refresh_token", "").maxAge(0).path("/").build());
+            return "success";
+        }));
+    }
+}
@@ -1,26 +1,27 @@
 package cn.worken.gateway.filter;
 
-import cn.worken.gateway.config.constant.ClientConstants;
+import cn.worken.gateway.auth.AuthenticationInfoCache;
+import cn.worken.gateway.auth.AuthenticationInfoCache.CachedAuthentication;
+import cn.worken.gateway.config.constant.GatewayCode;
 import cn.worken.gateway.config.constant.GatewayTransHeader;
 import cn.worken.gateway.config.constant.ReqContextConstant;
 import cn.worken.gateway.config.constant.UserConstants;
-import cn.worken.gateway.dto.GatewayAuthenticationInfo;
+import cn.worken.gateway.config.exception.GatewayException;
+import cn.worken.gateway.metrics.RequestTimeline;
+import cn.worken.gateway.metrics.RequestTimeline.Phase;
 import cn.worken.gateway.resource.OpenAPIListServerWebExchangeMatcher;
 import cn.worken.gateway.resource.manage.WhiteListServerWebExchangeMatcher;
-import com.alibaba.fastjson.JSON;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
-import org.springframework.util.Base64Utils;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.util.Optional;
-import java.util.UUID;
-
 /**
  * 用户认证信息解析
  *
@@ -32,64 +33,92 @@ import java.util.UUID;
 public class AuthenticationRetrieveFilter implements GlobalFilter, Ordered {
 
     private final WhiteListServerWebExchangeMatcher whiteListServerWebExchangeMatcher;
+    private final AuthenticationInfoCache authenticationInfoCache;
+    private final OpenAPIListServerWebExchangeMatcher openAPIListServerWebExchangeMatcher;
 
-    public AuthenticationRetrieveFilter(WhiteListServerWebExchangeMatcher whiteListServerWebExchangeMatcher) {
+    public AuthenticationRetrieveFilter(WhiteListServerWebExchangeMatcher whiteListServerWebExchangeMatcher,
+        AuthenticationInfoCache authenticationInfoCache,
+        OpenAPIListServerWebExchangeMatcher openAPIListServerWebExchangeMatcher) {
         this.whiteListServerWebExchangeMatcher = whiteListServerWebExchangeMatcher;
+        this.authenticationInfoCache = authenticationInfoCache;
+        this.openAPIListServerWebExchangeMatcher = openAPIListServerWebExchangeMatcher;
     }
 
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         if (whiteListServerWebExchangeMatcher.isWhiteApi(exchange)) {
-            return chain.filter(exchange);
+            return chain.filter(removeTransHeaders(exchange));
         }
         Boolean isUser = exchange.getAttribute(ReqContextConstant.SECURITY_IS_USER);
         Jwt jwt = exchange.getAttribute(ReqContextConstant.SECURITY_INFO_IN_REQ);
         if (jwt == null || isUser == null) {
-            return chain.filter(exchange);
-        }
-        GatewayAuthenticationInfo authenticationInfo;
-        if (isUser) {
-            // 封装用户信息
-            authenticationInfo = GatewayAuthenticationInfo.builder()
-                .userId(String.valueOf(jwt.<Integer>getClaim(UserConstants.USER_ID)))
-                .clientId(jwt.getClaim(UserConstants.CLIENT_ID))
-                .comId(jwt.getClaim(UserConstants.COM_ID))
-                .username(jwt.getClaim(UserConstants.USER_NAME))
-                // 防止中文乱码
-                .name(Optional.ofNullable(jwt.getClaimAsString(UserConstants.NAME))
-                    .map(n -> Base64Utils.encodeToString(n.getBytes())).orElse(null))
-                .userType(jwt.getClaim(UserConstants.USER_TYPE))
-                .server(jwt.getClaim(UserConstants.SERVER))
-                .productId(jwt.getClaim(UserConstants.PRODUCT_ID))
-                .build();
-        } else {
-            // client 请求封装 只有 client_id 和 com_id
-            authenticationInfo = GatewayAuthenticationInfo.builder()
-                .clientId(jwt.getClaim(ClientConstants.CLIENT_ID))
-                .comId(jwt.getClaim(ClientConstants.COM_ID))
-                .confProductCode(jwt.getClaim(ClientConstants.PRODUCT_CODE))
-                .build();
+            return chain.filter(removeTransHeaders(exchange));
         }
+        // 同一个 token 的用户信息和请求头只构建一次 , 命中授权结果缓存时已经放入 attribute
+        CachedAuthentication cached = exchange.getAttribute(ReqContextConstant.CACHED_AUTHENTICATION);
+        CachedAuthentication authentication = cached != null ? cached : authenticationInfoCache.get(jwt, isUser);
+        exchange.getAttributes().put(ReqContextConstant.CACHED_AUTHENTICATION, authentication);
+        RequestTimeline.mark(exchange, Phase.AUTH_INFO);
         // attribute 存入用户信息
-        exchange.getAttributes().put(ReqContextConstant.GATEWAY_AUTHENTICATION_INFO, authenticationInfo);
-        // 请求头存入用户信息 供后续服务访问
-        exchange.getRequest().mutate()
-            .header(GatewayTransHeader.X_GATEWAY_AUTHENTICATION_INFO, JSON.toJSONString(authenticationInfo));
+        exchange.getAttributes().put(ReqContextConstant.GATEWAY_AUTHENTICATION_INFO, authentication.getInfo());
 
-        // 存入用户唯一标识 用于做用户识别(限流)
-        if(OpenAPIListServerWebExchangeMatcher.testOpenAPIList(exchange)) {
-            // 针对开放API接口，引导其他限流规则
-            exchange.getAttributes().remove(GatewayTransHeader.X_IDENTIFIES);
-            exchange.getRequest().mutate()
-                    .header(GatewayTransHeader.X_OPENAPI, UUID.randomUUID().toString());
-        } else {
-            exchange.getRequest().mutate()
-                    .header(GatewayTransHeader.X_IDENTIFIES, exchange.getAttributeOrDefault(ReqContextConstant.X_IDENTIFIES,
-                            UUID.randomUUID().toString()));
+        // 存入用户唯一标识 用于做用户识别(限流) , sentinel 从 attribute 中读取 ; 没有标识时不做用户限流
+        Object attribute = exchange.getAttribute(ReqContextConstant.X_IDENTIFIES);
+        String identifies = attribute != null ? attribute.toString() : null;
+        boolean openApi = openAPIListServerWebExchangeMatcher.isOpenApi(exchange);
+        if (openApi) {
+            // 开放API接口 不走用户限流 , 按 app key (client_id) 配额限流 , token 中没有 client_id 时无法限流 , 直接拒绝
+            identifies = jwt.getClaimAsString(UserConstants.CLIENT_ID);
+            if (identifies == null) {
+                throw new GatewayException(GatewayCode.AUTHENTICATION_FAILURE);
+            }
+            exchange.getAttributes().remove(ReqContextConstant.X_IDENTIFIES);
+            exchange.getAttributes().put(ReqContextConstant.X_OPENAPI, identifies);
         }
+        String transIdentifies = identifies;
 
-        return chain.filter(exchange);
+        // 请求头存入用户信息 供后续服务访问 , 一次性写入所有网关请求头
+        ServerHttpRequest request = exchange.getRequest().mutate().headers(headers -> {
+            headers.set(GatewayTransHeader.X_GATEWAY_AUTHENTICATION_INFO, authentication.getHeaderValue());
+            if (authentication.getIdentityHeaderValue() != null) {
+                headers.set(GatewayTransHeader.X_GATEWAY_IDENTITY, authentication.getIdentityHeaderValue());
+            } else {
+                headers.remove(GatewayTransHeader.X_GATEWAY_IDENTITY);
+            }
+            if (openApi) {
+                headers.remove(GatewayTransHeader.X_IDENTIFIES);
+                headers.set(GatewayTransHeader.X_OPENAPI, transIdentifies);
+            } else {
+                headers.remove(GatewayTransHeader.X_OPENAPI);
+                if (transIdentifies != null) {
+                    headers.set(GatewayTransHeader.X_IDENTIFIES, transIdentifies);
+                } else {
+                    headers.remove(GatewayTransHeader.X_IDENTIFIES);
+                }
+            }
+        }).build();
+        return chain.filter(exchange.mutate().request(request).build());
+    }
+
+    /**
+     * 未认证的请求 移除客户端伪造的网关请求头 , 没有时不做修改
+     */
+    private ServerWebExchange removeTransHeaders(ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        if (!headers.containsKey(GatewayTransHeader.X_GATEWAY_AUTHENTICATION_INFO)
+            && !headers.containsKey(GatewayTransHeader.X_IDENTIFIES)
+            && !headers.containsKey(GatewayTransHeader.X_OPENAPI)
+            && !headers.containsKey(GatewayTransHeader.X_GATEWAY_IDENTITY)) {
+            return exchange;
+        }
+        ServerHttpRequest request = exchange.getRequest().mutate().headers(h -> {
+            h.remove(GatewayTransHeader.X_GATEWAY_AUTHENTICATION_INFO);
+            h.remove(GatewayTransHeader.X_IDENTIFIES);
+            h.remove(GatewayTransHeader.X_OPENAPI);
+            h.remove(GatewayTransHeader.X_GATEWAY_IDENTITY);
+        }).build();
+        return exchange.mutate().request(request).build();
     }
 
     @Override
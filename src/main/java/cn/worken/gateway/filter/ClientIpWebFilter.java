@@ -0,0 +1,55 @@
+package cn.worken.gateway.filter;
+
+import cn.worken.gateway.config.constant.GatewayCode;
+import cn.worken.gateway.config.constant.ReqContextConstant;
+import cn.worken.gateway.ip.ClientIpResolver;
+import com.alibaba.fastjson.JSON;
+import com.google.common.collect.ImmutableMap;
+import java.nio.charset.StandardCharsets;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * 解析客户端 ip 放入 attribute , 禁止访问网段直接返回 403
+ */
+@Component
+public class ClientIpWebFilter implements WebFilter, Ordered {
+
+    private static final byte[] DENY_BODY = JSON.toJSONString(ImmutableMap.of(
+        "code", GatewayCode.ACCESS_DENY.getCode(),
+        "message", GatewayCode.ACCESS_DENY.getMessage())).getBytes(StandardCharsets.UTF_8);
+
+    private final ClientIpResolver clientIpResolver;
+
+    public ClientIpWebFilter(ClientIpResolver clientIpResolver) {
+        this.clientIpResolver = clientIpResolver;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String ip = clientIpResolver.resolve(exchange.getRequest());
+        exchange.getAttributes().put(ReqContextConstant.CLIENT_IP, ip);
+        if (!clientIpResolver.isDenied(ip)) {
+            return chain.filter(exchange);
+        }
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.FORBIDDEN);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(DENY_BODY)));
+    }
+
+    /**
+     * 在过载保护之前
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 5;
+    }
+}
@@ -0,0 +1,73 @@
+package cn.worken.gateway.filter;
+
+import cn.worken.gateway.config.constant.GatewayCode;
+import cn.worken.gateway.config.constant.ReqContextConstant;
+import cn.worken.gateway.config.exception.GatewayException;
+import cn.worken.gateway.jfr.GatewayEvent;
+import cn.worken.gateway.jfr.GatewayEvents;
+import cn.worken.gateway.jfr.GatewayEvents.Type;
+import cn.worken.gateway.limit.ClusterRateLimiter;
+import cn.worken.gateway.limit.OpenApiQuotas;
+import cn.worken.gateway.limit.RateLimitProperties;
+import cn.worken.gateway.limit.RateLimitRule;
+import cn.worken.gateway.metrics.RequestTimeline;
+import cn.worken.gateway.metrics.RequestTimeline.Phase;
+import cn.worken.gateway.util.GatewayUtils;
+import cn.worken.gateway.util.RouteUtils;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 集群限流 , 按用户标识在所有网关节点间共享限额 ; sentinel 规则作为单节点兜底
+ * <p>
+ * 开放接口按 app key 配额限流 , 始终开启
+ *
+ * @see ClusterRateLimiter
+ */
+@Component
+public class ClusterRateLimitFilter implements GlobalFilter, Ordered {
+
+    private final ClusterRateLimiter clusterRateLimiter;
+    private final RateLimitProperties properties;
+    private final OpenApiQuotas openApiQuotas;
+
+    public ClusterRateLimitFilter(ClusterRateLimiter clusterRateLimiter, RateLimitProperties properties,
+        OpenApiQuotas openApiQuotas) {
+        this.clusterRateLimiter = clusterRateLimiter;
+        this.properties = properties;
+        this.openApiQuotas = openApiQuotas;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String appKey = exchange.getAttribute(ReqContextConstant.X_OPENAPI);
+        if (appKey != null) {
+            return limit(exchange, chain, "open-api:" + appKey, openApiQuotas.get(appKey));
+        }
+        Object identifies = exchange.getAttribute(ReqContextConstant.X_IDENTIFIES);
+        if (!properties.isClusterEnabled() || identifies == null) {
+            RequestTimeline.mark(exchange, Phase.RATE_LIMIT);
+            return chain.filter(exchange);
+        }
+        return limit(exchange, chain, "identity:" + identifies, properties.getIdentity());
+    }
+
+    private Mono<Void> limit(ServerWebExchange exchange, GatewayFilterChain chain, String key, RateLimitRule rule) {
+        GatewayEvent event = GatewayEvents.begin(Type.RATE_LIMIT);
+        return clusterRateLimiter.tryAcquire(key, rule)
+            .doOnNext(allowed -> RequestTimeline.mark(exchange, Phase.RATE_LIMIT))
+            .doOnNext(allowed -> event.end(RouteUtils.getLbName(exchange), GatewayUtils.getRawPath(exchange),
+                allowed ? "allow" : "deny"))
+            .flatMap(allowed -> allowed ? chain.filter(exchange)
+                : Mono.error(new GatewayException(GatewayCode.TOO_MANY_REQUESTS)));
+    }
+
+    @Override
+    public int getOrder() {
+        return GlobalFilterOrders.CLUSTER_RATE_LIMIT.getOrder();
+    }
+}
@@ -0,0 +1,65 @@
+package cn.worken.gateway.filter;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import cn.worken.gateway.config.constant.GatewayCode;
+import cn.worken.gateway.config.exception.GatewayException;
+import cn.worken.gateway.limit.AdaptiveConcurrencyLimiter;
+import cn.worken.gateway.limit.ConcurrencyLimitProperties;
+import cn.worken.gateway.limit.GradientLimit;
+import cn.worken.gateway.util.RouteUtils;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * 下游服务自适应并发限制 , 超过上限直接返回 503 , 不在网关排队
+ * <p>
+ * 延迟为请求转发到收到下游响应头的时间 ; 下游返回 502 / 503 / 504 或转发出错视为过载
+ */
+@Component
+public class ConcurrencyLimitFilter implements GlobalFilter, Ordered {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ConcurrencyLimitProperties properties;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, ConcurrencyLimitProperties properties) {
+        this.limiter = limiter;
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null) {
+            return chain.filter(exchange);
+        }
+        GradientLimit limit = limiter.get(RouteUtils.getLbName(route));
+        if (!limit.tryAcquire()) {
+            return Mono.error(new GatewayException(GatewayCode.SERVICE_UNAVAILABLE));
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            HttpStatus status = exchange.getResponse().getStatusCode();
+            if (signal == SignalType.CANCEL) {
+                limit.onIgnore();
+            } else if (signal == SignalType.ON_ERROR || status == HttpStatus.BAD_GATEWAY
+                || status == HttpStatus.SERVICE_UNAVAILABLE || status == HttpStatus.GATEWAY_TIMEOUT) {
+                limit.onDropped();
+            } else {
+                limit.onSuccess(System.nanoTime() - start);
+            }
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return GlobalFilterOrders.CONCURRENCY_LIMIT.getOrder();
+    }
+}
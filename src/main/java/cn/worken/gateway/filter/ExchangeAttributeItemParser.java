@@ -0,0 +1,39 @@
+package cn.worken.gateway.filter;
+
+import cn.worken.gateway.config.constant.ReqContextConstant;
+import com.alibaba.csp.sentinel.adapter.gateway.sc.ServerWebExchangeItemParser;
+import com.google.common.collect.ImmutableSet;
+import java.util.Set;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * sentinel 参数解析 , 网关自己写入的标识及客户端 ip 直接从 attribute 中读取 , 不依赖请求头
+ *
+ * @see AuthenticationRetrieveFilter
+ */
+public class ExchangeAttributeItemParser extends ServerWebExchangeItemParser {
+
+    /**
+     * 从 attribute 中读取的 key
+     */
+    private static final Set<String> ATTRIBUTE_KEYS =
+        ImmutableSet.of(ReqContextConstant.X_IDENTIFIES, ReqContextConstant.X_OPENAPI);
+
+    @Override
+    public String getHeader(ServerWebExchange exchange, String key) {
+        if (ATTRIBUTE_KEYS.contains(key)) {
+            Object value = exchange.getAttribute(key);
+            return value == null ? null : value.toString();
+        }
+        return super.getHeader(exchange, key);
+    }
+
+    /**
+     * 客户端 ip 使用经可信代理解析后的地址
+     */
+    @Override
+    public String getRemoteAddress(ServerWebExchange exchange) {
+        String ip = exchange.getAttribute(ReqContextConstant.CLIENT_IP);
+        return ip != null ? ip : super.getRemoteAddress(exchange);
+    }
+}
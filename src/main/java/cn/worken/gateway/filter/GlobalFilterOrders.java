@@ -14,10 +14,18 @@ public enum GlobalFilterOrders {
      * 认证
      */
     AUTHENTICATION(OrderStart.COUNT.getAndIncrement()),
+    /**
+     * 热点统计
+     */
+    HOT_KEY(OrderStart.COUNT.getAndIncrement()),
     /**
      * sentinel 限流
      */
     SENTINEL(OrderStart.COUNT.getAndIncrement()),
+    /**
+     * 集群限流
+     */
+    CLUSTER_RATE_LIMIT(OrderStart.COUNT.getAndIncrement()),
     /**
      * 权限控制
      */
@@ -29,7 +37,11 @@ public enum GlobalFilterOrders {
     /**
      * 续签
      */
-    REFRESH_TOKEN(OrderStart.COUNT.getAndIncrement()),;
+    REFRESH_TOKEN(OrderStart.COUNT.getAndIncrement()),
+    /**
+     * 下游服务并发限制 , 放在最后只统计真正转发的请求
+     */
+    CONCURRENCY_LIMIT(OrderStart.COUNT.getAndIncrement()),;
 
     private final int order;
 
@@ -0,0 +1,51 @@
+package cn.worken.gateway.filter;
+
+import cn.worken.gateway.config.constant.ReqContextConstant;
+import cn.worken.gateway.config.constant.UserConstants;
+import cn.worken.gateway.stats.HotKeys;
+import cn.worken.gateway.stats.HotKeys.Dimension;
+import cn.worken.gateway.util.GatewayUtils;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 记录热点用户 , client , ip , 在限流之前执行 , 被限流的请求同样计入
+ */
+@Component
+public class HotKeyRecordFilter implements GlobalFilter, Ordered {
+
+    private final HotKeys hotKeys;
+
+    public HotKeyRecordFilter(HotKeys hotKeys) {
+        this.hotKeys = hotKeys;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (hotKeys.isEnabled()) {
+            Object identifies = exchange.getAttribute(ReqContextConstant.X_IDENTIFIES);
+            if (identifies == null) {
+                identifies = exchange.getAttribute(ReqContextConstant.X_OPENAPI);
+            }
+            if (identifies != null) {
+                hotKeys.record(Dimension.IDENTITY, identifies.toString());
+            }
+            Jwt jwt = exchange.getAttribute(ReqContextConstant.SECURITY_INFO_IN_REQ);
+            if (jwt != null) {
+                hotKeys.record(Dimension.CLIENT, jwt.getClaimAsString(UserConstants.CLIENT_ID));
+            }
+            hotKeys.record(Dimension.IP, GatewayUtils.getIpAddress(exchange));
+        }
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        return GlobalFilterOrders.HOT_KEY.getOrder();
+    }
+}
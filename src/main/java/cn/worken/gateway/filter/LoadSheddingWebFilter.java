@@ -0,0 +1,110 @@
+package cn.worken.gateway.filter;
+
+import cn.worken.gateway.auth.TokenExtractor;
+import cn.worken.gateway.config.constant.GatewayCode;
+import cn.worken.gateway.resource.OpenAPIListServerWebExchangeMatcher;
+import cn.worken.gateway.resource.ResourceControl;
+import cn.worken.gateway.shed.LoadShedder;
+import cn.worken.gateway.shed.LoadSheddingProperties;
+import cn.worken.gateway.shed.RequestPriority;
+import cn.worken.gateway.util.GatewayUtils;
+import com.alibaba.fastjson.JSON;
+import com.google.common.collect.ImmutableMap;
+import java.nio.charset.StandardCharsets;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * 网关过载保护 , 在 jwt 校验之前执行 , 事件循环延迟或 cpu 过高时按优先级丢弃请求
+ * <p>
+ * 只根据请求路径和 token 位置判断优先级 , 不解析 token , 只检查 jwt 结构 , 格式不对的 token 按 BULK 处理 ; 响应体预先生成
+ */
+@Component
+public class LoadSheddingWebFilter implements WebFilter, Ordered {
+
+    private static final byte[] SHED_BODY = JSON.toJSONString(ImmutableMap.of(
+        "code", GatewayCode.SERVICE_UNAVAILABLE.getCode(),
+        "message", GatewayCode.SERVICE_UNAVAILABLE.getMessage())).getBytes(StandardCharsets.UTF_8);
+    private static final String ACTUATOR_PREFIX = "/actuator/";
+
+    private final LoadSheddingProperties properties;
+    private final LoadShedder loadShedder;
+    private final ResourceControl resourceControl;
+    private final OpenAPIListServerWebExchangeMatcher openAPIListServerWebExchangeMatcher;
+    private final TokenExtractor tokenExtractor;
+
+    public LoadSheddingWebFilter(LoadSheddingProperties properties, LoadShedder loadShedder,
+        ResourceControl resourceControl, OpenAPIListServerWebExchangeMatcher openAPIListServerWebExchangeMatcher,
+        TokenExtractor tokenExtractor) {
+        this.properties = properties;
+        this.loadShedder = loadShedder;
+        this.resourceControl = resourceControl;
+        this.openAPIListServerWebExchangeMatcher = openAPIListServerWebExchangeMatcher;
+        this.tokenExtractor = tokenExtractor;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled() || !loadShedder.shouldShed(priority(exchange))) {
+            return chain.filter(exchange);
+        }
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(SHED_BODY)));
+    }
+
+    private RequestPriority priority(ServerWebExchange exchange) {
+        String path = GatewayUtils.getRawPath(exchange);
+        if (path.startsWith(ACTUATOR_PREFIX) || resourceControl.isWhiteApi(path)) {
+            return RequestPriority.CRITICAL;
+        }
+        if (openAPIListServerWebExchangeMatcher.isOpenApi(exchange) || !isJwtShape(tokenExtractor.token(exchange))) {
+            return RequestPriority.BULK;
+        }
+        return tokenExtractor.isCookieToken(exchange) ? RequestPriority.USER : RequestPriority.CLIENT;
+    }
+
+    /**
+     * header.payload.signature 三段非空 base64url ; 不解码 , 不校验签名
+     */
+    static boolean isJwtShape(String token) {
+        if (token == null) {
+            return false;
+        }
+        int dots = 0;
+        int segmentLength = 0;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (segmentLength == 0 || ++dots > 2) {
+                    return false;
+                }
+                segmentLength = 0;
+            } else if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-'
+                || c == '_') {
+                segmentLength++;
+            } else {
+                return false;
+            }
+        }
+        return dots == 2 && segmentLength > 0;
+    }
+
+    /**
+     * 在 metrics 之后 , security 之前
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+}
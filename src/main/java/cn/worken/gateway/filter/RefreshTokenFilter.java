@@ -1,5 +1,6 @@
 package cn.worken.gateway.filter;
 
+import cn.worken.gateway.auth.TokenExtractor;
 import cn.worken.gateway.config.constant.GatewayCode;
 import cn.worken.gateway.config.constant.ReqContextConstant;
 import cn.worken.gateway.config.exception.GatewayException;
@@ -7,13 +8,11 @@ import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
-import org.springframework.http.HttpCookie;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseCookie;
@@ -40,13 +39,15 @@ public class RefreshTokenFilter implements GlobalFilter, Ordered {
     @Value("${oauth.client_secret}")
     private String clientSecret;
     private final RestTemplate restTemplate;
+    private final TokenExtractor tokenExtractor;
     /**
      * 剩下多少时间的时候进行续签
      */
     private static final int EXPIRES_DIVIDE = 3;
 
-    public RefreshTokenFilter(RestTemplate restTemplate) {
+    public RefreshTokenFilter(RestTemplate restTemplate, TokenExtractor tokenExtractor) {
         this.restTemplate = restTemplate;
+        this.tokenExtractor = tokenExtractor;
     }
 
     @Override
@@ -57,8 +58,7 @@ public class RefreshTokenFilter implements GlobalFilter, Ordered {
             return chain.filter(exchange);
         }
         // 从 cookie 中获取 refresh_token
-        String refreshToken = Optional.ofNullable(exchange.getRequest().getCookies().getFirst("refresh_token"))
-            .map(HttpCookie::getValue).orElse(null);
+        String refreshToken = tokenExtractor.refreshToken(exchange);
         if (jwt.getExpiresAt() != null && refreshToken != null) {
             // 到期时间
             LocalDateTime expire = LocalDateTime.ofInstant(jwt.getExpiresAt(), ZoneId.of("Asia/Shanghai"));
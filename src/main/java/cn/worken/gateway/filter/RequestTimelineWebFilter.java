@@ -0,0 +1,75 @@
+package cn.worken.gateway.filter;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import cn.worken.gateway.config.GatewayWebExceptionHandler;
+import cn.worken.gateway.config.constant.ReqContextConstant;
+import cn.worken.gateway.metrics.RequestTimeline;
+import cn.worken.gateway.metrics.RequestTimeline.Phase;
+import cn.worken.gateway.metrics.SlowRequest;
+import cn.worken.gateway.metrics.SlowRequestLog;
+import cn.worken.gateway.metrics.SlowRequestProperties;
+import cn.worken.gateway.util.GatewayUtils;
+import java.util.concurrent.TimeUnit;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * 为每个请求创建阶段时间线 , 请求结束时超过阈值的写入慢请求记录
+ */
+@Component
+public class RequestTimelineWebFilter implements WebFilter, Ordered {
+
+    private final SlowRequestProperties properties;
+    private final SlowRequestLog slowRequestLog;
+
+    public RequestTimelineWebFilter(SlowRequestProperties properties, SlowRequestLog slowRequestLog) {
+        this.properties = properties;
+        this.slowRequestLog = slowRequestLog;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        RequestTimeline timeline = new RequestTimeline();
+        exchange.getAttributes().put(ReqContextConstant.REQUEST_TIMELINE, timeline);
+        Throwable[] error = new Throwable[1];
+        return chain.filter(exchange)
+            .doOnError(e -> error[0] = e)
+            .doFinally(signal -> {
+                timeline.mark(Phase.COMPLETE);
+                long total = timeline.elapsedNanos(Phase.COMPLETE);
+                if (total >= TimeUnit.MILLISECONDS.toNanos(properties.getThresholdMs())) {
+                    slowRequestLog.add(snapshot(exchange, timeline, total, error[0]));
+                }
+            });
+    }
+
+    private static SlowRequest snapshot(ServerWebExchange exchange, RequestTimeline timeline, long total,
+        Throwable error) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        // 异常在本 filter 结束后才由 GatewayWebExceptionHandler 写入响应 , 按异常类型取响应码
+        HttpStatus status = error != null ? GatewayWebExceptionHandler.resolveStatus(error)
+            : exchange.getResponse().getStatusCode();
+        return new SlowRequest(System.currentTimeMillis(), exchange.getRequest().getMethodValue(),
+            GatewayUtils.getRawPath(exchange), route != null ? route.getId() : null,
+            status != null ? status.value() : null, error != null ? error.getClass().getSimpleName() : null,
+            total / 1000 / 1000.0, timeline.phases());
+    }
+
+    /**
+     * 最先执行
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 2;
+    }
+}
@@ -1,9 +1,12 @@
 package cn.worken.gateway.filter;
 
+import cn.worken.gateway.auth.AuthorizationDecisionCache;
 import cn.worken.gateway.config.constant.GatewayCode;
 import cn.worken.gateway.config.constant.ReqContextConstant;
 import cn.worken.gateway.config.exception.GatewayException;
 import cn.worken.gateway.dto.GatewayAuthenticationInfo;
+import cn.worken.gateway.metrics.RequestTimeline;
+import cn.worken.gateway.metrics.RequestTimeline.Phase;
 import cn.worken.gateway.resource.ResourceAccessFactory;
 import cn.worken.gateway.resource.ResourceAccessStatus;
 import cn.worken.gateway.resource.manage.WhiteListServerWebExchangeMatcher;
@@ -27,11 +30,13 @@ public class ResourceAccessFilter implements GlobalFilter, Ordered {
 
     private final WhiteListServerWebExchangeMatcher whiteListServerWebExchangeMatcher;
     private final ResourceAccessFactory resourceAccessFactory;
+    private final AuthorizationDecisionCache decisionCache;
 
     public ResourceAccessFilter(WhiteListServerWebExchangeMatcher whiteListServerWebExchangeMatcher,
-        ResourceAccessFactory resourceAccessFactory) {
+        ResourceAccessFactory resourceAccessFactory, AuthorizationDecisionCache decisionCache) {
         this.whiteListServerWebExchangeMatcher = whiteListServerWebExchangeMatcher;
         this.resourceAccessFactory = resourceAccessFactory;
+        this.decisionCache = decisionCache;
     }
 
     @Override
@@ -45,9 +50,14 @@ public class ResourceAccessFilter implements GlobalFilter, Ordered {
         if (authenticationInfo == null) {
             throw new GatewayException(GatewayCode.AUTHENTICATION_FAILURE);
         }
+        // 命中授权结果缓存时直接使用缓存的校验结果
+        ResourceAccessStatus cachedStatus = exchange.getAttribute(ReqContextConstant.RESOURCE_ACCESS_STATUS);
         // 将请求上下文交给 factory 处理 resource 处理
-        Mono<ResourceAccessStatus> accessResult = resourceAccessFactory.access(isUser, exchange, authenticationInfo);
+        Mono<ResourceAccessStatus> accessResult = cachedStatus != null ? Mono.just(cachedStatus)
+            : resourceAccessFactory.access(isUser, exchange, authenticationInfo)
+                .doOnNext(access -> decisionCache.put(exchange, access));
         return accessResult.doOnNext(access -> {
+            RequestTimeline.mark(exchange, Phase.RESOURCE_CHECK);
             if (!access.isAccess()) {
                 throw new GatewayException(access.getDenyCode(), access.getDenyMsg());
             }
@@ -0,0 +1,42 @@
+package cn.worken.gateway.filter;
+
+import cn.worken.gateway.capture.TrafficCapture;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * 流量采样 , 未采样的请求直接放行 ; 请求结束后记录 , 包括被过载保护及 ip 黑名单拒绝的请求
+ */
+@Component
+public class TrafficCaptureWebFilter implements WebFilter, Ordered {
+
+    private final TrafficCapture trafficCapture;
+
+    public TrafficCaptureWebFilter(TrafficCapture trafficCapture) {
+        this.trafficCapture = trafficCapture;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!trafficCapture.sample()) {
+            return chain.filter(exchange);
+        }
+        long startMillis = System.currentTimeMillis();
+        Throwable[] error = new Throwable[1];
+        return chain.filter(exchange)
+            .doOnError(e -> error[0] = e)
+            .doFinally(signal -> trafficCapture.record(exchange, startMillis, error[0]));
+    }
+
+    /**
+     * 在请求时间线之后 , 客户端 ip 解析之前
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 3;
+    }
+}
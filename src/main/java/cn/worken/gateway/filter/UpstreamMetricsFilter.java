@@ -0,0 +1,59 @@
+package cn.worken.gateway.filter;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import cn.worken.gateway.metrics.UpstreamMetrics;
+import cn.worken.gateway.metrics.UpstreamMetrics.Service;
+import cn.worken.gateway.util.RouteUtils;
+import java.net.URI;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.LoadBalancerClientFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * 下游服务延迟 , 错误 , 并发指标 , 在负载均衡之后执行 , 可以拿到实际转发的实例
+ */
+@Component
+public class UpstreamMetricsFilter implements GlobalFilter, Ordered {
+
+    private final UpstreamMetrics upstreamMetrics;
+
+    public UpstreamMetricsFilter(UpstreamMetrics upstreamMetrics) {
+        this.upstreamMetrics = upstreamMetrics;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        Service service = upstreamMetrics.service(RouteUtils.getLbName(route));
+        service.start();
+        long start = System.nanoTime();
+        Throwable[] error = new Throwable[1];
+        return chain.filter(exchange)
+            .doOnError(e -> error[0] = e)
+            .doFinally(signal -> {
+                URI url = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+                String instance = url != null ? url.getHost() + ':' + url.getPort() : UpstreamMetrics.OTHER;
+                HttpStatus status = exchange.getResponse().getStatusCode();
+                String outcome = signal == SignalType.CANCEL ? "CANCELED" : UpstreamMetrics.outcome(status, error[0]);
+                service.stop(instance, UpstreamMetrics.statusClass(error[0] == null ? status : null), outcome,
+                    System.nanoTime() - start);
+            });
+    }
+
+    @Override
+    public int getOrder() {
+        return LoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+}
@@ -0,0 +1,28 @@
+package cn.worken.gateway.filter;
+
+import cn.worken.gateway.metrics.RequestTimeline;
+import cn.worken.gateway.metrics.RequestTimeline.Phase;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 在 NettyRoutingFilter 之前记录转发开始 , 收到下游响应头后记录首字节时间
+ */
+@Component
+public class UpstreamTimelineFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        RequestTimeline.mark(exchange, Phase.UPSTREAM_REQUEST);
+        return chain.filter(exchange).doOnSuccess(v -> RequestTimeline.mark(exchange, Phase.FIRST_BYTE));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+}
@@ -0,0 +1,126 @@
+package cn.worken.gateway.identity;
+
+/**
+ * 网关签名身份头中携带的用户信息 , 字段与网关 GatewayAuthenticationInfo 一致
+ * <p>
+ * 该包只依赖 JDK , 单独打包为 classifier 为 identity 的 jar 供下游服务校验使用
+ */
+public class IdentityClaims {
+
+    private String userId;
+    private String username;
+    private String comId;
+    private String clientId;
+    private String userType;
+    /**
+     * 用户名称 base64 编码
+     */
+    private String name;
+    private String server;
+    private String loginType;
+    private Long productId;
+    private String confProductCode;
+    /**
+     * 过期时间 秒
+     */
+    private long expiresAt;
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public IdentityClaims setUserId(String userId) {
+        this.userId = userId;
+        return this;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public IdentityClaims setUsername(String username) {
+        this.username = username;
+        return this;
+    }
+
+    public String getComId() {
+        return comId;
+    }
+
+    public IdentityClaims setComId(String comId) {
+        this.comId = comId;
+        return this;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public IdentityClaims setClientId(String clientId) {
+        this.clientId = clientId;
+        return this;
+    }
+
+    public String getUserType() {
+        return userType;
+    }
+
+    public IdentityClaims setUserType(String userType) {
+        this.userType = userType;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public IdentityClaims setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public String getServer() {
+        return server;
+    }
+
+    public IdentityClaims setServer(String server) {
+        this.server = server;
+        return this;
+    }
+
+    public String getLoginType() {
+        return loginType;
+    }
+
+    public IdentityClaims setLoginType(String loginType) {
+        this.loginType = loginType;
+        return this;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public IdentityClaims setProductId(Long productId) {
+        this.productId = productId;
+        return this;
+    }
+
+    public String getConfProductCode() {
+        return confProductCode;
+    }
+
+    public IdentityClaims setConfProductCode(String confProductCode) {
+        this.confProductCode = confProductCode;
+        return this;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public IdentityClaims setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+        return this;
+    }
+}
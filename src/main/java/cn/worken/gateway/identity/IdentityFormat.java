@@ -0,0 +1,152 @@
+package cn.worken.gateway.identity;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * 身份头二进制格式
+ * <pre>
+ * version(1) | keyId(1) | expiresAt(8) | 字段... | hmac-sha256(32)
+ * </pre>
+ * 字符串字段为 varint(长度 + 1) + utf8 , 长度位为 0 表示 null ; 整体使用 base64url 编码 不带 padding
+ */
+final class IdentityFormat {
+
+    static final byte VERSION = 1;
+    static final String HMAC_ALGORITHM = "HmacSHA256";
+    static final int MAC_LENGTH = 32;
+
+    private IdentityFormat() {
+    }
+
+    static Mac newMac(byte[] secret) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret, HMAC_ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("无法初始化 " + HMAC_ALGORITHM, e);
+        }
+    }
+
+    static void writeClaims(ByteArrayOutputStream out, IdentityClaims claims) {
+        writeString(out, claims.getUserId());
+        writeString(out, claims.getUsername());
+        writeString(out, claims.getComId());
+        writeString(out, claims.getClientId());
+        writeString(out, claims.getUserType());
+        writeString(out, claims.getName());
+        writeString(out, claims.getServer());
+        writeString(out, claims.getLoginType());
+        writeString(out, claims.getConfProductCode());
+        if (claims.getProductId() == null) {
+            out.write(0);
+        } else {
+            out.write(1);
+            writeLong(out, claims.getProductId());
+        }
+    }
+
+    static IdentityClaims readClaims(Reader reader) {
+        return new IdentityClaims()
+            .setUserId(reader.readString())
+            .setUsername(reader.readString())
+            .setComId(reader.readString())
+            .setClientId(reader.readString())
+            .setUserType(reader.readString())
+            .setName(reader.readString())
+            .setServer(reader.readString())
+            .setLoginType(reader.readString())
+            .setConfProductCode(reader.readString())
+            .setProductId(reader.readByte() == 0 ? null : reader.readLong());
+    }
+
+    static void writeLong(ByteArrayOutputStream out, long value) {
+        for (int i = 7; i >= 0; i--) {
+            out.write((int) (value >>> (i * 8)));
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * 顺序读取 , 越界时抛出校验异常
+     */
+    static class Reader {
+
+        private final byte[] data;
+        private final int limit;
+        private int position;
+
+        Reader(byte[] data, int offset, int limit) {
+            this.data = data;
+            this.position = offset;
+            this.limit = limit;
+        }
+
+        byte readByte() {
+            if (position >= limit) {
+                throw new IdentityVerificationException("身份头格式错误");
+            }
+            return data[position++];
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (readByte() & 0xFF);
+            }
+            return value;
+        }
+
+        String readString() {
+            int length = readVarInt();
+            if (length == 0) {
+                return null;
+            }
+            length--;
+            // 第 5 个字节溢出时长度为负数
+            if (length < 0 || length > limit - position) {
+                throw new IdentityVerificationException("身份头格式错误");
+            }
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IdentityVerificationException("身份头格式错误");
+        }
+
+        boolean isFinished() {
+            return position == limit;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package cn.worken.gateway.identity;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Base64;
+import javax.crypto.Mac;
+
+/**
+ * 网关侧生成签名身份头 , 线程安全
+ */
+public class IdentitySigner {
+
+    private final int keyId;
+    private final ThreadLocal<Mac> mac;
+
+    /**
+     * @param keyId 密钥编号 (0~255) , 用于下游按编号选择密钥 , 支持密钥轮换
+     * @param secret hmac 密钥
+     */
+    public IdentitySigner(int keyId, byte[] secret) {
+        if (keyId < 0 || keyId > 255) {
+            throw new IllegalArgumentException("keyId 取值范围 0~255");
+        }
+        byte[] key = secret.clone();
+        this.keyId = keyId;
+        this.mac = ThreadLocal.withInitial(() -> IdentityFormat.newMac(key));
+    }
+
+    /**
+     * 生成身份头
+     *
+     * @param claims 用户信息 , expiresAt 必须设置
+     * @return base64url 编码的身份头
+     */
+    public String sign(IdentityClaims claims) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        out.write(IdentityFormat.VERSION);
+        out.write(keyId);
+        IdentityFormat.writeLong(out, claims.getExpiresAt());
+        IdentityFormat.writeClaims(out, claims);
+        byte[] payload = out.toByteArray();
+        byte[] signature = mac.get().doFinal(payload);
+        out.write(signature, 0, signature.length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(out.toByteArray());
+    }
+}
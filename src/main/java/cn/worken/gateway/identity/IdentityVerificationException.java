@@ -0,0 +1,11 @@
+package cn.worken.gateway.identity;
+
+/**
+ * 身份头校验失败
+ */
+public class IdentityVerificationException extends RuntimeException {
+
+    public IdentityVerificationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,88 @@
+package cn.worken.gateway.identity;
+
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import javax.crypto.Mac;
+
+/**
+ * 下游服务校验网关签名身份头 , 只需要一次 hmac 计算 , 无需再次校验 jwt , 线程安全
+ * <pre>
+ * IdentityVerifier verifier = new IdentityVerifier(Collections.singletonMap(1, secret));
+ * IdentityClaims claims = verifier.verify(request.getHeader(IdentityVerifier.HEADER_NAME));
+ * </pre>
+ */
+public class IdentityVerifier {
+
+    /**
+     * 网关写入的请求头
+     */
+    public static final String HEADER_NAME = "X-Gateway-Identity";
+
+    private final Map<Integer, ThreadLocal<Mac>> macs = new HashMap<>();
+
+    /**
+     * @param secrets 密钥编号 -> hmac 密钥 , 轮换期间可以同时配置新旧密钥
+     */
+    public IdentityVerifier(Map<Integer, byte[]> secrets) {
+        secrets.forEach((keyId, secret) -> {
+            byte[] key = secret.clone();
+            macs.put(keyId, ThreadLocal.withInitial(() -> IdentityFormat.newMac(key)));
+        });
+    }
+
+    /**
+     * 校验身份头 , 使用当前时间判断过期
+     */
+    public IdentityClaims verify(String header) {
+        return verify(header, System.currentTimeMillis() / 1000);
+    }
+
+    /**
+     * 校验身份头
+     *
+     * @param header 身份头
+     * @param nowEpochSecond 当前时间 秒
+     * @return 用户信息
+     * @throws IdentityVerificationException 格式错误 签名不匹配 或 已过期
+     */
+    public IdentityClaims verify(String header, long nowEpochSecond) {
+        if (header == null || header.isEmpty()) {
+            throw new IdentityVerificationException("缺少身份头");
+        }
+        byte[] data;
+        try {
+            data = Base64.getUrlDecoder().decode(header);
+        } catch (IllegalArgumentException e) {
+            throw new IdentityVerificationException("身份头格式错误");
+        }
+        // version + keyId + expiresAt + 签名
+        if (data.length < 10 + IdentityFormat.MAC_LENGTH || data[0] != IdentityFormat.VERSION) {
+            throw new IdentityVerificationException("身份头格式错误");
+        }
+        ThreadLocal<Mac> mac = macs.get(data[1] & 0xFF);
+        if (mac == null) {
+            throw new IdentityVerificationException("未知的密钥编号 " + (data[1] & 0xFF));
+        }
+        int payloadLength = data.length - IdentityFormat.MAC_LENGTH;
+        Mac instance = mac.get();
+        instance.update(data, 0, payloadLength);
+        byte[] expected = instance.doFinal();
+        byte[] actual = new byte[IdentityFormat.MAC_LENGTH];
+        System.arraycopy(data, payloadLength, actual, 0, IdentityFormat.MAC_LENGTH);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            throw new IdentityVerificationException("身份头签名错误");
+        }
+        IdentityFormat.Reader reader = new IdentityFormat.Reader(data, 2, payloadLength);
+        long expiresAt = reader.readLong();
+        if (expiresAt < nowEpochSecond) {
+            throw new IdentityVerificationException("身份头已过期");
+        }
+        IdentityClaims claims = IdentityFormat.readClaims(reader).setExpiresAt(expiresAt);
+        if (!reader.isFinished()) {
+            throw new IdentityVerificationException("身份头格式错误");
+        }
+        return claims;
+    }
+}
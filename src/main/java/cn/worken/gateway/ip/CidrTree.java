@@ -0,0 +1,93 @@
+package cn.worken.gateway.ip;
+
+import com.google.common.net.InetAddresses;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+
+/**
+ * CIDR 二进制前缀树 , ipv4 与 ipv6 分别保存 , 查询只需按位遍历一次地址
+ */
+public class CidrTree {
+
+    private final Node ipv4 = new Node();
+    private final Node ipv6 = new Node();
+
+    /**
+     * 添加网段
+     *
+     * @param cidr 例如 10.0.0.0/8 , 不带掩码时为单个地址
+     */
+    public void add(String cidr) {
+        String value = cidr.trim();
+        int slash = value.indexOf('/');
+        InetAddress address = InetAddresses.forString(slash < 0 ? value : value.substring(0, slash));
+        byte[] bytes = address.getAddress();
+        int prefix = slash < 0 ? bytes.length * 8 : Integer.parseInt(value.substring(slash + 1));
+        if (prefix < 0 || prefix > bytes.length * 8) {
+            throw new IllegalArgumentException("无效网段 : " + cidr);
+        }
+        Node node = address instanceof Inet4Address ? ipv4 : ipv6;
+        for (int i = 0; i < prefix && !node.terminal; i++) {
+            int bit = bit(bytes, i);
+            if (node.children[bit] == null) {
+                node.children[bit] = new Node();
+            }
+            node = node.children[bit];
+        }
+        node.terminal = true;
+    }
+
+    public boolean contains(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        Node node = address instanceof Inet4Address ? ipv4 : ipv6;
+        for (int i = 0; ; i++) {
+            if (node.terminal) {
+                return true;
+            }
+            if (i == bytes.length * 8) {
+                return false;
+            }
+            node = node.children[bit(bytes, i)];
+            if (node == null) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 判断字符串形式的 ip , 不是合法 ip 时返回 false , 不做域名解析
+     */
+    public boolean contains(String ip) {
+        InetAddress address = parse(ip);
+        return address != null && contains(address);
+    }
+
+    public boolean isEmpty() {
+        return ipv4.children[0] == null && ipv4.children[1] == null && !ipv4.terminal
+            && ipv6.children[0] == null && ipv6.children[1] == null && !ipv6.terminal;
+    }
+
+    /**
+     * 解析 ip 字面量 , 不合法时返回 null
+     */
+    static InetAddress parse(String ip) {
+        if (ip == null || ip.isEmpty()) {
+            return null;
+        }
+        try {
+            return InetAddresses.forString(ip);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static int bit(byte[] bytes, int index) {
+        return (bytes[index >>> 3] >>> (7 - (index & 7))) & 1;
+    }
+
+    private static class Node {
+
+        private final Node[] children = new Node[2];
+        private boolean terminal;
+    }
+}
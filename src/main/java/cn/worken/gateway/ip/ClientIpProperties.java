@@ -0,0 +1,26 @@
+package cn.worken.gateway.ip;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 客户端 ip 解析配置
+ */
+@Data
+@Component
+@ConfigurationProperties("gateway.client-ip")
+public class ClientIpProperties {
+
+    /**
+     * 可信代理网段 , 只有来自可信代理的 X-Forwarded-For 才会被使用
+     */
+    private List<String> trustedProxies = new ArrayList<>();
+
+    /**
+     * 禁止访问的网段
+     */
+    private List<String> denyList = new ArrayList<>();
+}
@@ -0,0 +1,109 @@
+package cn.worken.gateway.ip;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import javax.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * 客户端真实 ip 解析
+ * <p>
+ * 从直连地址开始 , 只要当前地址是可信代理就继续从右向左读取 X-Forwarded-For , 第一个不可信的地址即为客户端 ip .
+ * 客户端自己伪造的 X-Forwarded-For 位于最左侧 , 不会被使用
+ */
+@Slf4j
+@Component
+public class ClientIpResolver {
+
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    private final ClientIpProperties properties;
+    private volatile CidrTree trustedProxies = new CidrTree();
+    private volatile CidrTree denyList = new CidrTree();
+
+    public ClientIpResolver(ClientIpProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void init() {
+        trustedProxies = build(properties.getTrustedProxies());
+        denyList = build(properties.getDenyList());
+    }
+
+    /**
+     * 配置中心刷新后重新加载
+     */
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void onRefresh() {
+        init();
+    }
+
+    /**
+     * 解析客户端 ip
+     */
+    public String resolve(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        InetAddress remote = remoteAddress != null ? remoteAddress.getAddress() : null;
+        if (remote == null) {
+            return remoteAddress != null ? remoteAddress.getHostString() : "";
+        }
+        String ip = remote.getHostAddress();
+        CidrTree trusted = trustedProxies;
+        if (!trusted.contains(remote)) {
+            return ip;
+        }
+        List<String> headers = request.getHeaders().get(X_FORWARDED_FOR);
+        if (headers == null) {
+            return ip;
+        }
+        // 多个请求头按顺序拼接 , 从最后一个请求头的最右侧开始
+        for (int h = headers.size() - 1; h >= 0; h--) {
+            String header = headers.get(h);
+            int end = header.length();
+            while (end > 0) {
+                int start = header.lastIndexOf(',', end - 1) + 1;
+                String candidate = header.substring(start, end).trim();
+                end = start - 1;
+                if (candidate.isEmpty()) {
+                    continue;
+                }
+                InetAddress address = CidrTree.parse(candidate);
+                if (address == null) {
+                    // 无法解析的地址不可信 , 使用上一个可信代理记录的地址
+                    return ip;
+                }
+                ip = address.getHostAddress();
+                if (!trusted.contains(address)) {
+                    return ip;
+                }
+            }
+        }
+        return ip;
+    }
+
+    /**
+     * 是否在禁止访问网段中
+     */
+    public boolean isDenied(String ip) {
+        CidrTree deny = denyList;
+        return !deny.isEmpty() && deny.contains(ip);
+    }
+
+    private static CidrTree build(List<String> cidrs) {
+        CidrTree tree = new CidrTree();
+        for (String cidr : cidrs) {
+            try {
+                tree.add(cidr);
+            } catch (IllegalArgumentException e) {
+                log.error("忽略无效网段 {} : {}", cidr, e.getMessage());
+            }
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,22 @@
+package cn.worken.gateway.jfr;
+
+/**
+ * 一次网关事件 , 由 {@link GatewayEvents#begin} 开始 , 调用 end 结束
+ */
+public interface GatewayEvent {
+
+    /**
+     * JFR 不可用或未开启录制时使用
+     */
+    GatewayEvent NOOP = (service, path, outcome) -> {
+    };
+
+    /**
+     * 结束事件
+     *
+     * @param service 服务名
+     * @param path 接口路径模板
+     * @param outcome 结果
+     */
+    void end(String service, String path, String outcome);
+}
@@ -0,0 +1,69 @@
+package cn.worken.gateway.jfr;
+
+import cn.worken.gateway.util.GatewayUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 网关 JFR 事件入口 , 运行环境不支持 JFR (jdk 8u262 之前) 时全部为空操作 , 不会加载 jdk.jfr 相关类
+ * <p>
+ * 未开启录制时 begin 只有一次 isEnabled 判断
+ */
+public final class GatewayEvents {
+
+    public enum Type {
+        /**
+         * jwt 校验
+         */
+        JWT_VERIFY,
+        /**
+         * redis 用户权限校验
+         */
+        REDIS_PERMISSION,
+        /**
+         * 数据库查询
+         */
+        JDBC_LOOKUP,
+        /**
+         * 限流判断
+         */
+        RATE_LIMIT,
+        /**
+         * 全局异常处理
+         */
+        EXCEPTION
+    }
+
+    private static final boolean AVAILABLE = ClassUtils.isPresent("jdk.jfr.Event", GatewayEvents.class.getClassLoader());
+
+    private GatewayEvents() {
+    }
+
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    public static GatewayEvent begin(Type type) {
+        return AVAILABLE ? JfrEvents.begin(type) : GatewayEvent.NOOP;
+    }
+
+    /**
+     * 记录 mono 从订阅到结束的事件 , 出错时结果为异常类名 ; 服务名及路径在事件结束时从请求获取 , 未开启录制时不计算
+     */
+    public static <T> Mono<T> trace(Type type, ServerWebExchange exchange, Mono<T> mono) {
+        if (!AVAILABLE) {
+            return mono;
+        }
+        return Mono.defer(() -> {
+            GatewayEvent event = begin(type);
+            if (event == GatewayEvent.NOOP) {
+                return mono;
+            }
+            return mono.doOnSuccess(v -> event.end(GatewayUtils.getServiceName(exchange),
+                GatewayUtils.getRawPath(exchange), "success"))
+                .doOnError(e -> event.end(GatewayUtils.getServiceName(exchange), GatewayUtils.getRawPath(exchange),
+                    e.getClass().getSimpleName()));
+        });
+    }
+}
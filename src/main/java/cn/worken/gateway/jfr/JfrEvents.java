@@ -0,0 +1,96 @@
+package cn.worken.gateway.jfr;
+
+import cn.worken.gateway.jfr.GatewayEvents.Type;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR 事件定义 , 只在 {@link GatewayEvents#isAvailable()} 为 true 时加载
+ */
+final class JfrEvents {
+
+    private JfrEvents() {
+    }
+
+    static GatewayEvent begin(Type type) {
+        GatewayJfrEvent event;
+        switch (type) {
+            case JWT_VERIFY:
+                event = new JwtVerifyEvent();
+                break;
+            case REDIS_PERMISSION:
+                event = new RedisPermissionEvent();
+                break;
+            case JDBC_LOOKUP:
+                event = new JdbcLookupEvent();
+                break;
+            case RATE_LIMIT:
+                event = new RateLimitEvent();
+                break;
+            default:
+                event = new ExceptionEvent();
+                break;
+        }
+        if (!event.isEnabled()) {
+            return GatewayEvent.NOOP;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Category("Gateway")
+    @StackTrace(false)
+    abstract static class GatewayJfrEvent extends Event implements GatewayEvent {
+
+        @Label("Service")
+        String service;
+        @Label("Path")
+        String path;
+        @Label("Outcome")
+        String outcome;
+
+        @Override
+        public void end(String service, String path, String outcome) {
+            end();
+            if (shouldCommit()) {
+                this.service = service;
+                this.path = path;
+                this.outcome = outcome;
+                commit();
+            }
+        }
+    }
+
+    @Name("cn.worken.gateway.JwtVerify")
+    @Label("JWT Verify")
+    static class JwtVerifyEvent extends GatewayJfrEvent {
+
+    }
+
+    @Name("cn.worken.gateway.RedisPermission")
+    @Label("Redis Permission Check")
+    static class RedisPermissionEvent extends GatewayJfrEvent {
+
+    }
+
+    @Name("cn.worken.gateway.JdbcLookup")
+    @Label("JDBC Lookup")
+    static class JdbcLookupEvent extends GatewayJfrEvent {
+
+    }
+
+    @Name("cn.worken.gateway.RateLimit")
+    @Label("Rate Limit Decision")
+    static class RateLimitEvent extends GatewayJfrEvent {
+
+    }
+
+    @Name("cn.worken.gateway.Exception")
+    @Label("Gateway Exception")
+    static class ExceptionEvent extends GatewayJfrEvent {
+
+    }
+}
@@ -0,0 +1,121 @@
+package cn.worken.gateway.jfr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * 按需 JFR 录制 , 同一时间只有一个录制 , 大小 , 时长均有上限
+ * <ul>
+ * <li>POST /actuator/jfr {"settings": "profile", "durationSeconds": 300} 开始录制</li>
+ * <li>GET /actuator/jfr 录制状态</li>
+ * <li>DELETE /actuator/jfr 停止录制并保存</li>
+ * <li>GET /actuator/jfr/recording 下载最近一次录制</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@ConditionalOnClass(name = "jdk.jfr.Recording")
+@Endpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+
+    private static final long MAX_SIZE = 200L * 1024 * 1024;
+    private static final int MAX_DURATION_SECONDS = 1800;
+
+    private Recording recording;
+    private Path lastFile;
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("state", recording != null ? recording.getState().name() : "NONE");
+        if (recording != null) {
+            result.put("startTime", recording.getStartTime());
+            result.put("duration", recording.getDuration());
+            result.put("size", recording.getSize());
+        }
+        result.put("file", lastFile != null ? lastFile.toString() : null);
+        return result;
+    }
+
+    /**
+     * 开始录制
+     *
+     * @param settings jfr 配置 default / profile
+     * @param durationSeconds 录制时长 , 到期自动停止
+     */
+    @WriteOperation
+    public synchronized Map<String, Object> start(@Nullable String settings, @Nullable Integer durationSeconds)
+        throws IOException, ParseException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return status();
+        }
+        closeRecording();
+        recording = new Recording(Configuration.getConfiguration(settings != null ? settings : "profile"));
+        recording.setName("gateway");
+        recording.setToDisk(true);
+        recording.setMaxSize(MAX_SIZE);
+        int seconds = durationSeconds != null ? Math.min(durationSeconds, MAX_DURATION_SECONDS) : 300;
+        recording.setDuration(Duration.ofSeconds(seconds));
+        Path file = Files.createTempFile("gateway-", ".jfr");
+        recording.setDestination(file);
+        recording.start();
+        lastFile = file;
+        log.info("开始 JFR 录制 settings:{} duration:{}s file:{}", settings, seconds, file);
+        return status();
+    }
+
+    /**
+     * 停止录制 , 录制内容写入文件
+     */
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        return status();
+    }
+
+    /**
+     * 下载录制文件 , 录制中不可下载
+     *
+     * @param name 固定为 recording
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized Resource download(@Selector String name) {
+        if (!"recording".equals(name) || lastFile == null
+            || (recording != null && recording.getState() == RecordingState.RUNNING)) {
+            return null;
+        }
+        return new FileSystemResource(lastFile);
+    }
+
+    private void closeRecording() throws IOException {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        if (lastFile != null) {
+            Files.deleteIfExists(lastFile);
+            lastFile = null;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package cn.worken.gateway.limit;
+
+import cn.worken.gateway.cache.CacheRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * 按下游服务名维护自适应并发上限
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private final ConcurrencyLimitProperties properties;
+    private final Cache<String, GradientLimit> limits;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, CacheRegistry cacheRegistry) {
+        this.properties = properties;
+        this.limits = cacheRegistry.register("concurrencyLimit",
+            CacheBuilder.newBuilder().maximumSize(1000).expireAfterAccess(1, TimeUnit.HOURS).recordStats().build());
+    }
+
+    public GradientLimit get(String service) {
+        GradientLimit limit = limits.getIfPresent(service);
+        return limit != null ? limit : limits.asMap().computeIfAbsent(service, s -> new GradientLimit(properties));
+    }
+
+    /**
+     * 各服务当前并发上限
+     */
+    public Map<String, GradientLimit> limits() {
+        return limits.asMap();
+    }
+}
@@ -0,0 +1,135 @@
+package cn.worken.gateway.limit;
+
+import cn.worken.gateway.cache.CacheRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * 集群令牌桶限流
+ * <p>
+ * 令牌桶保存在 redis 中 , 每个节点按 key 一次租借一批令牌到本地 , 本地令牌不足一半时异步补充 ,
+ * 大部分请求在本地判断 , redis 每批令牌只调用一次 ; redis 异常时放行
+ */
+@Slf4j
+@Component
+public class ClusterRateLimiter {
+
+    private static final String KEY_PREFIX = "gateway:rate-limit:";
+    private static final Mono<Boolean> ALLOWED = Mono.just(Boolean.TRUE);
+    private static final Mono<Boolean> DENIED = Mono.just(Boolean.FALSE);
+
+    /**
+     * 令牌桶脚本 , 返回本次租借到的令牌数
+     */
+    private static final RedisScript<Long> LEASE_SCRIPT = new DefaultRedisScript<>(
+        "redis.replicate_commands() "
+            + "local capacity = tonumber(ARGV[1]) "
+            + "local rate = tonumber(ARGV[2]) "
+            + "local requested = tonumber(ARGV[3]) "
+            + "local time = redis.call('TIME') "
+            + "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) "
+            + "local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts') "
+            + "local tokens = tonumber(bucket[1]) "
+            + "local ts = tonumber(bucket[2]) "
+            + "if tokens == nil or ts == nil then tokens = capacity ts = now end "
+            + "tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate / 1000) "
+            + "local granted = math.min(requested, math.floor(tokens)) "
+            + "redis.call('HMSET', KEYS[1], 'tokens', tostring(tokens - granted), 'ts', tostring(now)) "
+            + "redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate * 1000) + 1000) "
+            + "return granted", Long.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Cache<String, LeasedBucket> buckets;
+
+    public ClusterRateLimiter(ReactiveStringRedisTemplate redisTemplate, RateLimitProperties properties,
+        CacheRegistry cacheRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.buckets = cacheRegistry.register("rateLimitBucket", CacheBuilder.newBuilder()
+            .maximumSize(properties.getMaximumBuckets()).expireAfterAccess(1, TimeUnit.MINUTES).recordStats().build());
+    }
+
+    /**
+     * 获取一个令牌
+     *
+     * @param key 限流 key
+     * @param rule 令牌桶规则
+     * @return 是否获取成功
+     */
+    public Mono<Boolean> tryAcquire(String key, RateLimitRule rule) {
+        // getIfPresent 计入缓存命中统计
+        LeasedBucket cached = buckets.getIfPresent(key);
+        LeasedBucket bucket = cached != null ? cached : buckets.asMap().computeIfAbsent(key, k -> new LeasedBucket());
+        long remaining = bucket.tokens.decrementAndGet();
+        if (remaining >= 0) {
+            // 本地令牌不足一半 提前异步补充
+            if (remaining < rule.getLeaseSize() / 2) {
+                bucket.lease(key, rule).subscribe();
+            }
+            return ALLOWED;
+        }
+        bucket.tokens.incrementAndGet();
+        // 集群令牌已耗尽 , 等待补充期间直接拒绝 , 不访问 redis
+        if (System.nanoTime() < bucket.deniedUntil) {
+            return DENIED;
+        }
+        // 本地无令牌 同步租借
+        return bucket.lease(key, rule).map(granted -> {
+            if (bucket.tokens.decrementAndGet() >= 0) {
+                return Boolean.TRUE;
+            }
+            bucket.tokens.incrementAndGet();
+            return Boolean.FALSE;
+        });
+    }
+
+    /**
+     * 本地租借到的令牌
+     */
+    private class LeasedBucket {
+
+        private final AtomicLong tokens = new AtomicLong();
+        /**
+         * 正在进行的租借 , 同一时间只有一个
+         */
+        private volatile Mono<Long> pending;
+        private volatile long deniedUntil;
+
+        private synchronized Mono<Long> lease(String key, RateLimitRule rule) {
+            Mono<Long> current = pending;
+            if (current != null) {
+                return current;
+            }
+            current = redisTemplate.execute(LEASE_SCRIPT, Collections.singletonList(KEY_PREFIX + key),
+                Arrays.asList(String.valueOf(rule.getCapacity()), String.valueOf(rule.getRate()),
+                    String.valueOf(rule.getLeaseSize())))
+                .next()
+                .defaultIfEmpty(0L)
+                .onErrorResume(e -> {
+                    log.warn("集群限流租借令牌失败 key:{} , 本次放行 : {}", key, e.getMessage());
+                    return Mono.just(rule.getLeaseSize());
+                })
+                .doOnNext(granted -> {
+                    if (granted > 0) {
+                        tokens.addAndGet(granted);
+                    } else {
+                        // 补充一个令牌所需时间内不再租借
+                        deniedUntil = System.nanoTime() + (long) (TimeUnit.SECONDS.toNanos(1) / rule.getRate());
+                    }
+                })
+                .doFinally(signal -> pending = null)
+                .cache();
+            pending = current;
+            return current;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package cn.worken.gateway.limit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 下游服务自适应并发限制配置
+ */
+@Data
+@Component
+@ConfigurationProperties("gateway.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = false;
+    /**
+     * 初始并发上限
+     */
+    private int initialLimit = 20;
+    private int minLimit = 5;
+    private int maxLimit = 1000;
+    /**
+     * 短期延迟超过长期延迟多少倍后开始降低上限
+     */
+    private double rttTolerance = 1.5;
+    /**
+     * 每个窗口新上限所占权重
+     */
+    private double smoothing = 0.2;
+    /**
+     * 长期延迟平滑窗口数
+     */
+    private int longWindow = 600;
+    /**
+     * 统计窗口时长
+     */
+    private long windowMs = 500;
+    /**
+     * 窗口内最少样本数 , 不足时延长窗口
+     */
+    private int minWindowSamples = 10;
+    /**
+     * 下游出错或超时时上限乘以该系数
+     */
+    private double backoffRatio = 0.9;
+}
@@ -0,0 +1,141 @@
+package cn.worken.gateway.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 单个下游服务的自适应并发上限 , 参考 gradient 算法
+ * <p>
+ * 每个窗口用平均延迟 (短期) 与长期指数平均延迟比较 , 延迟上升时按比例降低上限 , 延迟平稳时按 sqrt(limit) 增加 ;
+ * 窗口内有错误或超时按 backoffRatio 降低 . 请求路径上只有原子计数 , 窗口结束时由一个线程计算新上限
+ */
+public class GradientLimit {
+
+    private final ConcurrencyLimitProperties properties;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final LongAdder rttSum = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder drops = new LongAdder();
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private volatile int limit;
+    private volatile long windowEnd;
+    private volatile int maxInflight;
+    /**
+     * 长期平均延迟 纳秒 , 只在持有 updateLock 时修改
+     */
+    private double longRtt;
+    private double estimatedLimit;
+
+    GradientLimit(ConcurrencyLimitProperties properties) {
+        this.properties = properties;
+        this.estimatedLimit = properties.getInitialLimit();
+        this.limit = properties.getInitialLimit();
+        this.windowEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getWindowMs());
+    }
+
+    /**
+     * 占用一个并发 , 已达到上限返回 false
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inflight.compareAndSet(current, current + 1));
+        if (current + 1 > maxInflight) {
+            maxInflight = current + 1;
+        }
+        return true;
+    }
+
+    /**
+     * 请求成功 , 记录延迟
+     */
+    public void onSuccess(long rttNanos) {
+        inflight.decrementAndGet();
+        rttSum.add(rttNanos);
+        samples.increment();
+        maybeUpdate();
+    }
+
+    /**
+     * 下游出错或超时
+     */
+    public void onDropped() {
+        inflight.decrementAndGet();
+        drops.increment();
+        maybeUpdate();
+    }
+
+    /**
+     * 请求被取消 , 不计入样本
+     */
+    public void onIgnore() {
+        inflight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private void maybeUpdate() {
+        long now = System.nanoTime();
+        if (now < windowEnd || !updateLock.tryLock()) {
+            return;
+        }
+        try {
+            if (now < windowEnd) {
+                return;
+            }
+            long count = samples.sum();
+            long dropped = drops.sum();
+            if (count < properties.getMinWindowSamples() && dropped == 0) {
+                return;
+            }
+            long sum = rttSum.sumThenReset();
+            samples.add(-count);
+            drops.add(-dropped);
+            int peak = maxInflight;
+            maxInflight = inflight.get();
+            windowEnd = now + TimeUnit.MILLISECONDS.toNanos(properties.getWindowMs());
+            update(count == 0 ? 0 : (double) sum / count, dropped > 0, peak);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void update(double shortRtt, boolean dropped, int peakInflight) {
+        double newLimit;
+        if (dropped) {
+            newLimit = estimatedLimit * properties.getBackoffRatio();
+        } else {
+            if (longRtt == 0) {
+                longRtt = shortRtt;
+            } else {
+                double factor = 2.0 / (properties.getLongWindow() + 1);
+                longRtt = longRtt * (1 - factor) + shortRtt * factor;
+            }
+            // 并发远低于上限时不再继续增加
+            if (peakInflight < estimatedLimit / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, properties.getRttTolerance() * longRtt / shortRtt));
+            newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            newLimit = estimatedLimit * (1 - properties.getSmoothing()) + newLimit * properties.getSmoothing();
+            // 延迟恢复后长期延迟逐渐回落 , 避免长期延迟被慢请求拉高后上限无法下降
+            if (shortRtt < longRtt) {
+                longRtt = shortRtt * 0.1 + longRtt * 0.9;
+            }
+        }
+        estimatedLimit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,74 @@
+package cn.worken.gateway.limit;
+
+import cn.worken.gateway.resource.ResourceChangedEvent;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 开放接口 app key 配额 , 保存在 open_api_app_quota 表 , 没有配置的 app key 使用默认配额
+ * <p>
+ * 整表定时加载到内存 , 请求线程只读内存 , 不查询数据库
+ */
+@Slf4j
+@Component
+public class OpenApiQuotas {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RateLimitProperties properties;
+    private volatile Map<String, RateLimitRule> quotas = Collections.emptyMap();
+
+    public OpenApiQuotas(JdbcTemplate jdbcTemplate, RateLimitProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * 获取 app key 的配额
+     *
+     * @param appKey 客户端 client id
+     */
+    public RateLimitRule get(String appKey) {
+        RateLimitRule rule = quotas.get(appKey);
+        return rule != null ? rule : properties.getOpenApi();
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    /**
+     * 加载失败时继续使用上一次的配额
+     */
+    @Scheduled(fixedDelayString = "${gateway.rate-limit.quota-refresh-ms:60000}")
+    public void reload() {
+        try {
+            Map<String, RateLimitRule> loaded = new HashMap<>(64);
+            jdbcTemplate.query("select app_key, qps, burst from open_api_app_quota", resultSet -> {
+                double qps = resultSet.getDouble("qps");
+                long burst = resultSet.getLong("burst");
+                loaded.put(resultSet.getString("app_key"), new RateLimitRule(burst > 0 ? burst : (long) Math.ceil(qps),
+                    qps, properties.getOpenApi().getLeaseSize()));
+            });
+            quotas = Collections.unmodifiableMap(loaded);
+        } catch (Exception e) {
+            log.warn("加载开放接口配额失败 , 继续使用原配额 : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 开放接口权限刷新时同时刷新配额 , 事件可能在请求线程上发布 , 异步加载
+     */
+    @EventListener
+    public void onResourceChanged(ResourceChangedEvent event) {
+        Schedulers.boundedElastic().schedule(this::reload);
+    }
+}
@@ -0,0 +1,34 @@
+package cn.worken.gateway.limit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 集群限流配置
+ */
+@Data
+@Component
+@ConfigurationProperties("gateway.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * 是否开启基于 redis 的集群限流
+     */
+    private boolean clusterEnabled = false;
+
+    /**
+     * 按用户标识 (username / client_id) 限流
+     */
+    private RateLimitRule identity = new RateLimitRule();
+
+    /**
+     * 开放接口默认配额 , app key 在 open_api_app_quota 中没有配置时使用
+     */
+    private RateLimitRule openApi = new RateLimitRule(1000, 1000 / 3.0, 20);
+
+    /**
+     * 本地令牌桶最大数量
+     */
+    private long maximumBuckets = 100000;
+}
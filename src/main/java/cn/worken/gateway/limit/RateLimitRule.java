@@ -0,0 +1,27 @@
+package cn.worken.gateway.limit;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 令牌桶规则
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimitRule {
+
+    /**
+     * 桶容量 , 即允许的突发请求数
+     */
+    private long capacity = 20;
+    /**
+     * 每秒补充令牌数
+     */
+    private double rate = 20 / 3.0;
+    /**
+     * 每个节点每次从 redis 租借的令牌数
+     */
+    private long leaseSize = 5;
+}
@@ -0,0 +1,198 @@
+package cn.worken.gateway.limit;
+
+import cn.worken.gateway.config.constant.ReqContextConstant;
+import cn.worken.gateway.limit.SentinelRuleConfig.ApiGroup;
+import com.alibaba.cloud.nacos.NacosConfigManager;
+import com.alibaba.csp.sentinel.adapter.gateway.common.SentinelGatewayConstants;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiDefinition;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiPathPredicateItem;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiPredicateItem;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.GatewayApiDefinitionManager;
+import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayFlowRule;
+import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayParamFlowItem;
+import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayRuleManager;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.nacos.api.config.ConfigService;
+import com.alibaba.nacos.api.config.listener.AbstractListener;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import javax.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * sentinel 网关规则加载
+ * <p>
+ * 启动时依次使用内置规则 , 本地备份 , nacos 规则 ; 之后监听 nacos 修改 . 规则校验通过后整体替换 ,
+ * 校验失败保留当前规则 ; 生效的 nacos 规则写入本地备份
+ */
+@Slf4j
+@Component
+public class SentinelGatewayRules {
+
+    private final NacosConfigManager nacosConfigManager;
+    private final SentinelRuleProperties properties;
+
+    public SentinelGatewayRules(ObjectProvider<NacosConfigManager> nacosConfigManager,
+        SentinelRuleProperties properties) {
+        this.nacosConfigManager = nacosConfigManager.getIfAvailable();
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void init() {
+        load(defaultConfig());
+        Path backup = Paths.get(properties.getBackupFile());
+        if (Files.isReadable(backup)) {
+            try {
+                apply(new String(Files.readAllBytes(backup), StandardCharsets.UTF_8), false);
+            } catch (IOException e) {
+                log.warn("读取 sentinel 规则本地备份失败 : {}", e.getMessage());
+            }
+        }
+        if (nacosConfigManager == null) {
+            log.info("未启用 nacos 配置中心 , sentinel 网关规则只使用默认规则及本地备份");
+            return;
+        }
+        String group = StringUtils.defaultIfEmpty(properties.getGroup(),
+            nacosConfigManager.getNacosConfigProperties().getGroup());
+        try {
+            ConfigService configService = nacosConfigManager.getConfigService();
+            String content = configService.getConfigAndSignListener(properties.getDataId(), group,
+                properties.getTimeoutMs(), new AbstractListener() {
+                    @Override
+                    public void receiveConfigInfo(String configInfo) {
+                        apply(configInfo, true);
+                    }
+                });
+            apply(content, true);
+        } catch (Exception e) {
+            log.warn("读取 nacos sentinel 规则失败 , 使用当前规则 : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 校验并加载规则
+     *
+     * @param content 规则 json
+     * @param persist 是否写入本地备份
+     */
+    public synchronized boolean apply(String content, boolean persist) {
+        if (StringUtils.isBlank(content)) {
+            return false;
+        }
+        try {
+            SentinelRuleConfig config = JSON.parseObject(content, SentinelRuleConfig.class);
+            validate(config);
+            load(config);
+            log.info("sentinel 网关规则已更新 api:{} rule:{}", config.getApis().size(), config.getRules().size());
+        } catch (Exception e) {
+            log.error("sentinel 网关规则无效 , 保留当前规则 : {}", e.getMessage());
+            return false;
+        }
+        if (persist) {
+            backup(content);
+        }
+        return true;
+    }
+
+    private void validate(SentinelRuleConfig config) {
+        Set<String> apiNames = new HashSet<>();
+        for (ApiGroup api : config.getApis()) {
+            check(StringUtils.isNotEmpty(api.getApiName()), "apiName 不能为空");
+            check(apiNames.add(api.getApiName()), "apiName 重复 : " + api.getApiName());
+            check(!api.getPredicateItems().isEmpty(), api.getApiName() + " 没有配置 predicateItems");
+            for (ApiPathPredicateItem item : api.getPredicateItems()) {
+                check(StringUtils.isNotEmpty(item.getPattern()), api.getApiName() + " pattern 不能为空");
+            }
+        }
+        for (GatewayFlowRule rule : config.getRules()) {
+            String resource = rule.getResource();
+            check(StringUtils.isNotEmpty(resource), "resource 不能为空");
+            check(rule.getCount() >= 0 && rule.getIntervalSec() > 0 && rule.getBurst() >= 0,
+                resource + " count / intervalSec / burst 无效");
+            check(rule.getResourceMode() == SentinelGatewayConstants.RESOURCE_MODE_ROUTE_ID
+                || apiNames.contains(resource), resource + " 没有对应的 api 分组");
+            GatewayParamFlowItem item = rule.getParamItem();
+            if (item != null) {
+                check(item.getParseStrategy() == SentinelGatewayConstants.PARAM_PARSE_STRATEGY_CLIENT_IP
+                        || item.getParseStrategy() == SentinelGatewayConstants.PARAM_PARSE_STRATEGY_HOST
+                        || StringUtils.isNotEmpty(item.getFieldName()), resource + " paramItem 缺少 fieldName");
+            }
+        }
+    }
+
+    private static void check(boolean expression, String message) {
+        if (!expression) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    /**
+     * 先加载 api 分组再加载规则 , 新规则引用的分组总是已存在
+     */
+    private void load(SentinelRuleConfig config) {
+        Set<ApiDefinition> definitions = new HashSet<>();
+        for (ApiGroup api : config.getApis()) {
+            definitions.add(new ApiDefinition(api.getApiName())
+                .setPredicateItems(new LinkedHashSet<ApiPredicateItem>(api.getPredicateItems())));
+        }
+        GatewayApiDefinitionManager.loadApiDefinitions(definitions);
+        GatewayRuleManager.loadRules(new HashSet<>(config.getRules()));
+    }
+
+    /**
+     * 先写临时文件再原子替换 , 避免备份文件写一半
+     */
+    private void backup(String content) {
+        try {
+            Path target = Paths.get(properties.getBackupFile()).toAbsolutePath();
+            Files.createDirectories(target.getParent());
+            Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+            Files.write(tmp, content.getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("写入 sentinel 规则本地备份失败 : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 内置规则 , nacos 与本地备份都不可用时使用
+     */
+    private static SentinelRuleConfig defaultConfig() {
+        SentinelRuleConfig config = new SentinelRuleConfig();
+        //拦截所有api  兜底操作 如果要自定义配置在上面单独创建一个item
+        ApiGroup baseApi = new ApiGroup();
+        baseApi.setApiName("baseApi");
+        baseApi.setPredicateItems(Collections.singletonList(new ApiPathPredicateItem().setPattern("/**")
+            .setMatchStrategy(SentinelGatewayConstants.PARAM_MATCH_STRATEGY_PREFIX)));
+        config.setApis(Collections.singletonList(baseApi));
+        config.setRules(Arrays.asList(
+            //通用接口 根据登陆信息限流 3秒窗口期 最多20次访问
+            new GatewayFlowRule("baseApi")
+                .setResourceMode(SentinelGatewayConstants.RESOURCE_MODE_CUSTOM_API_NAME)
+                .setCount(20).setIntervalSec(3)
+                .setParamItem(new GatewayParamFlowItem()
+                    .setParseStrategy(SentinelGatewayConstants.PARAM_PARSE_STRATEGY_HEADER)
+                    .setFieldName(ReqContextConstant.X_IDENTIFIES)),
+            //登陆接口 根据IP 限流 相同IP 每5秒最多1次访问
+            new GatewayFlowRule("com-login")
+                .setResourceMode(SentinelGatewayConstants.RESOURCE_MODE_ROUTE_ID)
+                .setCount(1).setIntervalSec(5)
+                //根据可信代理解析出的客户端IP限流
+                .setParamItem(new GatewayParamFlowItem()
+                    .setParseStrategy(SentinelGatewayConstants.PARAM_PARSE_STRATEGY_CLIENT_IP))));
+        return config;
+    }
+}
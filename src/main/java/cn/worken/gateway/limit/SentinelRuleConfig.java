@@ -0,0 +1,38 @@
+package cn.worken.gateway.limit;
+
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiPathPredicateItem;
+import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayFlowRule;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+
+/**
+ * sentinel 网关规则 , 字段与 sentinel 的 gw-api-group / gw-flow 规则格式一致
+ * <pre>
+ * {
+ *   "apis": [{"apiName": "baseApi", "predicateItems": [{"pattern": "/**", "matchStrategy": 1}]}],
+ *   "rules": [{"resource": "baseApi", "resourceMode": 1, "count": 20, "intervalSec": 3,
+ *              "paramItem": {"parseStrategy": 2, "fieldName": "X_IDENTIFIES"}}]
+ * }
+ * </pre>
+ */
+@Data
+public class SentinelRuleConfig {
+
+    /**
+     * 自定义 api 分组
+     */
+    private List<ApiGroup> apis = new ArrayList<>();
+
+    /**
+     * 网关限流规则
+     */
+    private List<GatewayFlowRule> rules = new ArrayList<>();
+
+    @Data
+    public static class ApiGroup {
+
+        private String apiName;
+        private List<ApiPathPredicateItem> predicateItems = new ArrayList<>();
+    }
+}
@@ -0,0 +1,34 @@
+package cn.worken.gateway.limit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * sentinel 网关规则配置 , 规则内容保存在 nacos 中
+ */
+@Data
+@Component
+@ConfigurationProperties("gateway.sentinel")
+public class SentinelRuleProperties {
+
+    /**
+     * 规则所在 nacos data id , 内容为 {@link SentinelRuleConfig} json
+     */
+    private String dataId = "gateway-sentinel-rules.json";
+
+    /**
+     * nacos group , 为空时使用 spring.cloud.nacos.config.group
+     */
+    private String group;
+
+    /**
+     * 读取 nacos 超时时间
+     */
+    private long timeoutMs = 3000;
+
+    /**
+     * 最近一次生效规则的本地备份 , nacos 不可用时启动使用 ; 需要放在重启后仍保留的目录 , 默认与日志目录相同
+     */
+    private String backupFile = "/logs/application/sentinel/gateway-sentinel-rules.json";
+}
@@ -0,0 +1,49 @@
+package cn.worken.gateway.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * 单个 filter 的耗时统计 , 按 路由 + 结果 缓存 timer , 请求路径上只有一次 map 查询
+ * <p>
+ * 耗时为 filter 开始执行到调用下一个 filter (outcome=proceed) 或直接结束 (outcome=reject) 的时间 , 不包含后续 filter
+ */
+class FilterTimers {
+
+    static final String METRIC_NAME = "gateway.filter";
+    static final String NO_ROUTE = "none";
+
+    private final String filterName;
+    private final ObjectProvider<MeterRegistry> registryProvider;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    FilterTimers(String filterName, ObjectProvider<MeterRegistry> registryProvider) {
+        this.filterName = filterName;
+        this.registryProvider = registryProvider;
+    }
+
+    void record(String route, String outcome, long nanos) {
+        Timer timer = timers.get(route + '|' + outcome);
+        if (timer == null) {
+            MeterRegistry registry = registryProvider.getIfAvailable();
+            if (registry == null) {
+                return;
+            }
+            timer = timers.computeIfAbsent(route + '|' + outcome, key -> Timer.builder(METRIC_NAME)
+                .description("网关 filter 自身耗时")
+                .tag("filter", filterName)
+                .tag("route", route)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(1000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry));
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
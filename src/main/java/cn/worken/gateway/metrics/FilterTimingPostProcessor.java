@@ -0,0 +1,72 @@
+package cn.worken.gateway.metrics;
+
+import cn.worken.gateway.filter.GlobalFilterOrders;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashSet;
+import java.util.Set;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 为 {@link GlobalFilterOrders} 中排序的 GlobalFilter 及 security 过滤链中的 WebFilter 加上耗时统计 ,
+ * 指标 gateway.filter , 标签 filter / route / outcome , 可在 /actuator/metrics 及 /actuator/prometheus 查看
+ */
+@Component
+@ConditionalOnProperty(value = "gateway.metrics.filter-timing", havingValue = "true", matchIfMissing = true)
+public class FilterTimingPostProcessor implements BeanPostProcessor {
+
+    private static final Set<Integer> GATEWAY_ORDERS = new HashSet<>();
+
+    static {
+        for (GlobalFilterOrders order : GlobalFilterOrders.values()) {
+            GATEWAY_ORDERS.add(order.getOrder());
+        }
+    }
+
+    private final ObjectProvider<MeterRegistry> registryProvider;
+
+    public FilterTimingPostProcessor(ObjectProvider<MeterRegistry> registryProvider) {
+        this.registryProvider = registryProvider;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof GlobalFilter && bean instanceof Ordered
+            && GATEWAY_ORDERS.contains(((Ordered) bean).getOrder())) {
+            return new TimedGlobalFilter((GlobalFilter) bean, ((Ordered) bean).getOrder(),
+                new FilterTimers(beanName, registryProvider));
+        }
+        if (bean instanceof SecurityWebFilterChain) {
+            return timed((SecurityWebFilterChain) bean);
+        }
+        return bean;
+    }
+
+    private SecurityWebFilterChain timed(SecurityWebFilterChain chain) {
+        // 过滤链中的 WebFilter 固定不变 , 只包装一次
+        Flux<WebFilter> webFilters = chain.getWebFilters()
+            .map(filter -> (WebFilter) new TimedWebFilter(filter,
+                new FilterTimers(filter.getClass().getSimpleName(), registryProvider)))
+            .cache();
+        return new SecurityWebFilterChain() {
+            @Override
+            public Mono<Boolean> matches(ServerWebExchange exchange) {
+                return chain.matches(exchange);
+            }
+
+            @Override
+            public Flux<WebFilter> getWebFilters() {
+                return webFilters;
+            }
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package cn.worken.gateway.metrics;
+
+import cn.worken.gateway.config.constant.ReqContextConstant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * 单个请求的阶段时间线 , 记录每个阶段结束时相对请求开始的纳秒数 , 未经过的阶段为 0
+ * <p>
+ * 每个阶段只有一次 System.nanoTime 调用 , 只有慢请求才会生成 {@link SlowRequest}
+ */
+public class RequestTimeline {
+
+    public enum Phase {
+        /**
+         * 白名单匹配
+         */
+        WHITELIST,
+        /**
+         * 解析 token
+         */
+        TOKEN_EXTRACT,
+        /**
+         * jwt 校验及注销检查
+         */
+        JWT_VERIFY,
+        /**
+         * 构建用户信息及请求头
+         */
+        AUTH_INFO,
+        /**
+         * 限流判断
+         */
+        RATE_LIMIT,
+        /**
+         * 加载 api 资源 (redis / jdbc)
+         */
+        RESOURCE_LOAD,
+        /**
+         * 资源权限校验完成
+         */
+        RESOURCE_CHECK,
+        /**
+         * 交给 http client 转发
+         */
+        UPSTREAM_REQUEST,
+        /**
+         * 收到下游响应头 , 包含建立连接时间
+         */
+        FIRST_BYTE,
+        /**
+         * 响应写完
+         */
+        COMPLETE
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long start = System.nanoTime();
+    private final long[] marks = new long[PHASES.length];
+
+    /**
+     * 记录阶段结束 , 请求上没有时间线时忽略
+     */
+    public static void mark(ServerWebExchange exchange, Phase phase) {
+        RequestTimeline timeline = exchange.getAttribute(ReqContextConstant.REQUEST_TIMELINE);
+        if (timeline != null) {
+            timeline.mark(phase);
+        }
+    }
+
+    public void mark(Phase phase) {
+        marks[phase.ordinal()] = System.nanoTime() - start;
+    }
+
+    public long elapsedNanos(Phase phase) {
+        return marks[phase.ordinal()];
+    }
+
+    /**
+     * 已经过的阶段 -> 相对开始的毫秒数
+     */
+    public Map<String, Double> phases() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (Phase phase : PHASES) {
+            long nanos = marks[phase.ordinal()];
+            if (nanos > 0) {
+                result.put(phase.name(), nanos / 1000 / 1000.0);
+            }
+        }
+        return result;
+    }
+}
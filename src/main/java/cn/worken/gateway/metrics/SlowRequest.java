@@ -0,0 +1,25 @@
+package cn.worken.gateway.metrics;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 慢请求记录
+ */
+@Getter
+@AllArgsConstructor
+public class SlowRequest {
+
+    private final long timestamp;
+    private final String method;
+    private final String path;
+    private final String route;
+    private final Integer status;
+    private final String error;
+    private final double totalMillis;
+    /**
+     * 阶段 -> 相对请求开始的毫秒数
+     */
+    private final Map<String, Double> phases;
+}
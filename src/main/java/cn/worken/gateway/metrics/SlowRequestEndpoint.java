@@ -0,0 +1,26 @@
+package cn.worken.gateway.metrics;
+
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * 慢请求时间线查询 /actuator/slowrequests?limit=50
+ */
+@Component
+@Endpoint(id = "slowrequests")
+public class SlowRequestEndpoint {
+
+    private final SlowRequestLog slowRequestLog;
+
+    public SlowRequestEndpoint(SlowRequestLog slowRequestLog) {
+        this.slowRequestLog = slowRequestLog;
+    }
+
+    @ReadOperation
+    public List<SlowRequest> recent(@Nullable Integer limit) {
+        return slowRequestLog.recent(limit != null ? limit : 50);
+    }
+}
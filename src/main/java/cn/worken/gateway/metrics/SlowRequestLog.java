@@ -0,0 +1,43 @@
+package cn.worken.gateway.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.springframework.stereotype.Component;
+
+/**
+ * 最近慢请求的无锁环形缓冲 , 写入只有一次原子自增 , 写满后覆盖最旧的记录
+ */
+@Component
+public class SlowRequestLog {
+
+    private final AtomicReferenceArray<SlowRequest> buffer;
+    private final AtomicLong sequence = new AtomicLong();
+    private final int mask;
+
+    public SlowRequestLog(SlowRequestProperties properties) {
+        int size = Integer.highestOneBit(Math.max(2, properties.getBufferSize() - 1)) << 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public void add(SlowRequest request) {
+        buffer.lazySet((int) (sequence.getAndIncrement() & mask), request);
+    }
+
+    /**
+     * 最近的慢请求 , 新的在前
+     */
+    public List<SlowRequest> recent(int limit) {
+        long end = sequence.get();
+        List<SlowRequest> result = new ArrayList<>();
+        for (long i = end - 1; i >= 0 && i >= end - buffer.length() && result.size() < limit; i--) {
+            SlowRequest request = buffer.get((int) (i & mask));
+            if (request != null) {
+                result.add(request);
+            }
+        }
+        return result;
+    }
+}
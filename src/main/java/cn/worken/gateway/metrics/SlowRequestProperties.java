@@ -0,0 +1,24 @@
+package cn.worken.gateway.metrics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 慢请求记录配置
+ */
+@Data
+@Component
+@ConfigurationProperties("gateway.slow-request")
+public class SlowRequestProperties {
+
+    private boolean enabled = true;
+    /**
+     * 超过该耗时的请求记录时间线
+     */
+    private long thresholdMs = 1000;
+    /**
+     * 保留最近的慢请求条数 , 向上取 2 的幂
+     */
+    private int bufferSize = 256;
+}
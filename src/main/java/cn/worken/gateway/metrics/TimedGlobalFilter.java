@@ -0,0 +1,67 @@
+package cn.worken.gateway.metrics;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 统计 GlobalFilter 自身耗时 , 保留原 filter 的顺序
+ */
+class TimedGlobalFilter implements GlobalFilter, Ordered {
+
+    private final GlobalFilter delegate;
+    private final int order;
+    private final FilterTimers timers;
+
+    TimedGlobalFilter(GlobalFilter delegate, int order, FilterTimers timers) {
+        this.delegate = delegate;
+        this.order = order;
+        this.timers = timers;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        TimedChain timedChain = new TimedChain(chain, System.nanoTime());
+        return delegate.filter(exchange, timedChain).doFinally(signal -> {
+            if (!timedChain.recorded) {
+                timedChain.record(exchange, "reject");
+            }
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+
+    private class TimedChain implements GatewayFilterChain {
+
+        private final GatewayFilterChain chain;
+        private final long start;
+        private volatile boolean recorded;
+
+        private TimedChain(GatewayFilterChain chain, long start) {
+            this.chain = chain;
+            this.start = start;
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange) {
+            if (!recorded) {
+                record(exchange, "proceed");
+            }
+            return chain.filter(exchange);
+        }
+
+        private void record(ServerWebExchange exchange, String outcome) {
+            recorded = true;
+            Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+            timers.record(route != null ? route.getId() : FilterTimers.NO_ROUTE, outcome, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package cn.worken.gateway.metrics;
+
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * 统计 security 过滤链中每个 WebFilter 自身耗时 , 此时还没有匹配路由
+ */
+class TimedWebFilter implements WebFilter {
+
+    private final WebFilter delegate;
+    private final FilterTimers timers;
+
+    TimedWebFilter(WebFilter delegate, FilterTimers timers) {
+        this.delegate = delegate;
+        this.timers = timers;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        boolean[] recorded = new boolean[1];
+        return delegate.filter(exchange, ex -> {
+            if (!recorded[0]) {
+                recorded[0] = true;
+                timers.record(FilterTimers.NO_ROUTE, "proceed", System.nanoTime() - start);
+            }
+            return chain.filter(ex);
+        }).doFinally(signal -> {
+            if (!recorded[0]) {
+                recorded[0] = true;
+                timers.record(FilterTimers.NO_ROUTE, "reject", System.nanoTime() - start);
+            }
+        });
+    }
+}
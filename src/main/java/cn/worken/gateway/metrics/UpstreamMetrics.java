@@ -0,0 +1,182 @@
+package cn.worken.gateway.metrics;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * 下游服务指标 , 服务数及每个服务的实例数有上限 , 超过后归入 other , 避免标签无限增长 ;
+ * 实例空闲超过 {@link #INSTANCE_IDLE_MINUTES} 分钟后移除其指标 , 扩缩容或重新部署后不再保留旧实例
+ * <ul>
+ * <li>gateway.upstream.requests 延迟 , 标签 service / instance / status / outcome</li>
+ * <li>gateway.upstream.inflight 正在转发的请求数 , 标签 service</li>
+ * </ul>
+ */
+@Component
+public class UpstreamMetrics {
+
+    public static final String OTHER = "other";
+    private static final int MAX_SERVICES = 200;
+    private static final int MAX_INSTANCES_PER_SERVICE = 32;
+    private static final int INSTANCE_IDLE_MINUTES = 10;
+
+    private final MeterRegistry registry;
+    private final Map<String, Service> services = new ConcurrentHashMap<>();
+
+    public UpstreamMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Service service(String name) {
+        Service service = services.get(name);
+        if (service != null) {
+            return service;
+        }
+        if (services.size() >= MAX_SERVICES) {
+            name = OTHER;
+        }
+        return services.computeIfAbsent(name, Service::new);
+    }
+
+    /**
+     * 没有请求的服务不会触发缓存清理 , 定时清理空闲实例
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void cleanUp() {
+        services.values().forEach(service -> service.instances.cleanUp());
+    }
+
+    /**
+     * 请求结果分类
+     */
+    public static String outcome(HttpStatus status, Throwable error) {
+        if (error != null) {
+            for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+                if (cause instanceof TimeoutException) {
+                    return "TIMEOUT";
+                }
+                if (cause instanceof ConnectException
+                    || cause.getClass().getName().equals("io.netty.channel.ConnectTimeoutException")) {
+                    return "CONNECT_ERROR";
+                }
+            }
+            if (error instanceof ResponseStatusException
+                && ((ResponseStatusException) error).getStatus() == HttpStatus.GATEWAY_TIMEOUT) {
+                return "TIMEOUT";
+            }
+            return "ERROR";
+        }
+        if (status == null) {
+            return "UNKNOWN";
+        }
+        if (status.is5xxServerError()) {
+            return "SERVER_ERROR";
+        }
+        return status.is4xxClientError() ? "CLIENT_ERROR" : "SUCCESS";
+    }
+
+    public static String statusClass(HttpStatus status) {
+        return status == null ? "none" : (status.value() / 100) + "xx";
+    }
+
+    public class Service {
+
+        private final String name;
+        private final AtomicInteger inflight = new AtomicInteger();
+        private final Cache<String, Instance> instances = CacheBuilder.newBuilder()
+            .expireAfterAccess(INSTANCE_IDLE_MINUTES, TimeUnit.MINUTES)
+            .<String, Instance>removalListener(notification -> notification.getValue().remove())
+            .build();
+
+        private Service(String name) {
+            this.name = name;
+            Gauge.builder("gateway.upstream.inflight", inflight, AtomicInteger::get)
+                .description("正在转发到下游服务的请求数")
+                .tag("service", name)
+                .register(registry);
+        }
+
+        public void start() {
+            inflight.incrementAndGet();
+        }
+
+        public void stop(String instance, String status, String outcome, long nanos) {
+            inflight.decrementAndGet();
+            Instance target = instances.getIfPresent(instance);
+            if (target == null) {
+                target = register(instance);
+            }
+            target.timer(status, outcome).record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * 新实例加锁判断数量 , 超过上限归入 other
+         */
+        private synchronized Instance register(String instance) {
+            Instance target = instances.getIfPresent(instance);
+            if (target != null) {
+                return target;
+            }
+            // 先移除已过期的实例 , 否则 size 包含过期实例
+            instances.cleanUp();
+            if (!OTHER.equals(instance) && instances.size() >= MAX_INSTANCES_PER_SERVICE) {
+                return register(OTHER);
+            }
+            target = new Instance(instance);
+            instances.put(instance, target);
+            return target;
+        }
+
+        private class Instance {
+
+            private final String instance;
+            private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+            private volatile boolean removed;
+
+            private Instance(String instance) {
+                this.instance = instance;
+            }
+
+            private Timer timer(String status, String outcome) {
+                String key = status + '|' + outcome;
+                Timer timer = timers.get(key);
+                if (timer == null) {
+                    timer = timers.computeIfAbsent(key, k -> Timer
+                        .builder("gateway.upstream.requests")
+                        .description("下游服务请求延迟")
+                        .tag("service", name)
+                        .tag("instance", instance)
+                        .tag("status", status)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofMillis(1))
+                        .maximumExpectedValue(Duration.ofSeconds(60))
+                        .register(registry));
+                    // 与过期同时发生时 , 不保留已移除实例的指标
+                    if (removed) {
+                        registry.remove(timer);
+                    }
+                }
+                return timer;
+            }
+
+            private void remove() {
+                removed = true;
+                timers.values().forEach(registry::remove);
+            }
+        }
+    }
+}
@@ -1,18 +1,23 @@
 package cn.worken.gateway.resource;
 
 import cn.worken.gateway.util.GatewayUtils;
+import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-
+/**
+ * 开放接口判断 , 列表配置在 resource.open-api-list
+ */
+@Component
 public class OpenAPIListServerWebExchangeMatcher {
 
-    private static final List<String> OPEN_API_LIST = Arrays.asList("/business-center-backend/open-api/sms/idea/msg-sending-list");
+    private final ResourceControl resourceControl;
+
+    public OpenAPIListServerWebExchangeMatcher(ResourceControl resourceControl) {
+        this.resourceControl = resourceControl;
+    }
 
-    public static boolean testOpenAPIList(ServerWebExchange exchange) {
-        return OPEN_API_LIST.contains(GatewayUtils.getRawPath(exchange));
+    public boolean isOpenApi(ServerWebExchange exchange) {
+        return resourceControl.isOpenApi(GatewayUtils.getRawPath(exchange));
     }
 
 }
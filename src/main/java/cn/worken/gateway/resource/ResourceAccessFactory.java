@@ -3,6 +3,8 @@ package cn.worken.gateway.resource;
 import cn.worken.gateway.config.constant.GatewayCode;
 import cn.worken.gateway.config.exception.GatewayException;
 import cn.worken.gateway.dto.GatewayAuthenticationInfo;
+import cn.worken.gateway.metrics.RequestTimeline;
+import cn.worken.gateway.metrics.RequestTimeline.Phase;
 import cn.worken.gateway.resource.adapter.client.ClientResourceJdbcAdapter;
 import cn.worken.gateway.resource.adapter.user.UserResourceAdapter;
 import org.springframework.stereotype.Component;
@@ -29,6 +31,7 @@ public class ResourceAccessFactory {
         // 判断是内部用户还是client , 得到不同的 adapter
         ResourceAdapter resourceAdapter = isUser ? userResourceAdapter : clientResourceAdapter;
         Mono apiResource = resourceAdapter.loadResource(exchange)
+            .doOnNext(resource -> RequestTimeline.mark(exchange, Phase.RESOURCE_LOAD))
             .switchIfEmpty(Mono.error(new GatewayException(GatewayCode.API_NOT_EXIST)));
         return resourceAdapter.access(authenticationInfo, apiResource);
     }
@@ -0,0 +1,16 @@
+package cn.worken.gateway.resource;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 接口权限映射 或 开放接口授权 发生变化
+ */
+public class ResourceChangedEvent extends ApplicationEvent {
+
+    /**
+     * @param source 变化的服务名 或 client id , 为空时表示全部
+     */
+    public ResourceChangedEvent(Object source) {
+        super(source == null ? "" : source);
+    }
+}
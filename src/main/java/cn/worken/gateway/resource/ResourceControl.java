@@ -64,6 +64,13 @@ public class ResourceControl {
         return blockApiList;
     }
 
+    /**
+     * 开放接口 按 app key 配额限流
+     */
+    public boolean isOpenApi(String api) {
+        return StringUtils.isNotBlank(api) && anyMatch(api, properties.getOpenApiList());
+    }
+
     private boolean anyMatch(String api, Set<String> apiPatternList) {
         if (apiPatternList.contains(api)) {
             return true;
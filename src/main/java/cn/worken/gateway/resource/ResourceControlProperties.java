@@ -42,12 +42,17 @@ public class ResourceControlProperties {
      */
     private Set<String> blockApiList = new HashSet<>();
 
+    /**
+     * 开放接口列表 支持 ant 匹配 , 按 app key 配额限流
+     */
+    private Set<String> openApiList = new HashSet<>();
+
 
     @PostConstruct
     private void init() {
         // 从数据库中读出白名单列表
         whiteApiList = Sets.newHashSet(jdbcTemplate.queryForList("select api_uri from open_white_api", String.class));
-        log.info("网关uri控制列表------>\nexcludeResourceServiceList:[{}]\nwhiteApiList:[{}]\nblockApiList:[{}]",
-            excludeResourceServiceList, whiteApiList, blockApiList);
+        log.info("网关uri控制列表------>\nexcludeResourceServiceList:[{}]\nwhiteApiList:[{}]\nblockApiList:[{}]\nopenApiList:[{}]",
+            excludeResourceServiceList, whiteApiList, blockApiList, openApiList);
     }
 }
@@ -1,10 +1,15 @@
 package cn.worken.gateway.resource.adapter.client;
 
+import cn.worken.gateway.cache.CacheRegistry;
 import cn.worken.gateway.config.constant.GatewayCode;
 import cn.worken.gateway.config.exception.GatewayException;
 import cn.worken.gateway.dto.GatewayAuthenticationInfo;
+import cn.worken.gateway.jfr.GatewayEvent;
+import cn.worken.gateway.jfr.GatewayEvents;
+import cn.worken.gateway.jfr.GatewayEvents.Type;
 import cn.worken.gateway.resource.ResourceAccessStatus;
 import cn.worken.gateway.resource.ResourceAdapter;
+import cn.worken.gateway.resource.ResourceChangedEvent;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 
@@ -16,6 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
@@ -44,13 +50,19 @@ public class ClientResourceJdbcAdapter implements ResourceAdapter<ClientApiResou
      * 开放接口对应拥有的资源
      */
     private final Cache<String, List<String>> appkeyResourceCache;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ClientResourceJdbcAdapter(JdbcTemplate jdbcTemplate) {
+    public ClientResourceJdbcAdapter(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+        CacheRegistry cacheRegistry) {
         log.info("重置缓存,版本信息[{}]", version);
         this.jdbcTemplate = jdbcTemplate;
-        this.apiResourceCache = CacheBuilder.newBuilder().expireAfterAccess(1, TimeUnit.DAYS).maximumSize(1000).build();
-        this.appkeyResourceCache =
-                CacheBuilder.newBuilder().expireAfterAccess(1, TimeUnit.DAYS).maximumSize(1000).build();
+        this.eventPublisher = eventPublisher;
+        this.apiResourceCache = cacheRegistry.register("clientApiResource",
+                CacheBuilder.newBuilder().expireAfterAccess(1, TimeUnit.DAYS).maximumSize(1000).recordStats().build(),
+                apiId -> loadResource(apiId).block());
+        this.appkeyResourceCache = cacheRegistry.register("clientAppKeyResource",
+                CacheBuilder.newBuilder().expireAfterAccess(1, TimeUnit.DAYS).maximumSize(1000).recordStats().build(),
+                appKey -> loadClientApiId(appKey).collectList().block());
     }
 
     public void clearCache(String key) {
@@ -61,6 +73,7 @@ public class ClientResourceJdbcAdapter implements ResourceAdapter<ClientApiResou
             apiResourceCache.invalidate(key);
             appkeyResourceCache.invalidate(key);
         }
+        eventPublisher.publishEvent(new ResourceChangedEvent(key));
 
     }
 
@@ -69,6 +82,9 @@ public class ClientResourceJdbcAdapter implements ResourceAdapter<ClientApiResou
         ClientApiResource resource = Optional.ofNullable(apiResourceCache.getIfPresent(apiId)).orElseGet(() -> {
             String sql = "select id ,api_uri  from open_api where id = ? and status = 1";
             ClientApiResource result;
+            GatewayEvent event = GatewayEvents.begin(Type.JDBC_LOOKUP);
+            String outcome = "error";
+            String apiUri = null;
             try {
                 result = jdbcTemplate.queryForObject(sql, new Object[]{apiId}, (resultSet, i) -> {
                     ClientApiResource clientApiResource = new ClientApiResource();
@@ -76,9 +92,14 @@ public class ClientResourceJdbcAdapter implements ResourceAdapter<ClientApiResou
                     clientApiResource.setResourceName(resultSet.getString("api_uri"));
                     return clientApiResource;
                 });
+                apiUri = result.getResourceName();
+                outcome = "success";
             } catch (Exception e) {
                 log.info(e.getMessage());
                 throw new GatewayException(GatewayCode.API_NOT_EXIST);
+            } finally {
+                // api_uri 为 /服务名/路径
+                event.end(StringUtils.substringBetween(apiUri, "/", "/"), apiUri, outcome);
             }
             apiResourceCache.put(apiId, result);
             return result;
@@ -100,6 +121,8 @@ public class ClientResourceJdbcAdapter implements ResourceAdapter<ClientApiResou
         ClientApiResource resource = Optional.ofNullable(apiResourceCache.getIfPresent(absoluteUrl)).orElseGet(() -> {
             String sql = "select id,api_uri from open_api where api_uri = ? and status = 1";
             ClientApiResource result;
+            GatewayEvent event = GatewayEvents.begin(Type.JDBC_LOOKUP);
+            String outcome = "error";
             try {
                 result = jdbcTemplate.queryForObject(sql, new Object[]{absoluteUrl}, (resultSet, i) -> {
                     ClientApiResource clientApiResource = new ClientApiResource();
@@ -107,9 +130,12 @@ public class ClientResourceJdbcAdapter implements ResourceAdapter<ClientApiResou
                     clientApiResource.setResourceName(resultSet.getString("api_uri"));
                     return clientApiResource;
                 });
+                outcome = "success";
             } catch (Exception e) {
                 log.info(e.getMessage());
                 throw new GatewayException(GatewayCode.API_NOT_EXIST);
+            } finally {
+                event.end(serviceId, reqUri, outcome);
             }
             apiResourceCache.put(absoluteUrl, result);
             return result;
@@ -121,11 +147,9 @@ public class ClientResourceJdbcAdapter implements ResourceAdapter<ClientApiResou
     public Mono<ResourceAccessStatus> access(GatewayAuthenticationInfo authenticationInfo,
                                              Mono<ClientApiResource> apiResource) {
         // 判断该 client 拥有的资源id 是否匹配d
-        return loadClientApiId(authenticationInfo.getClientId())
-                // 判断匹配
-                .flatMap(apiId -> apiResource.map(resource -> resource.getApiId().equals(apiId)))
+        return apiResource.flatMap(resource -> loadClientApiId(authenticationInfo.getClientId(), resource)
                 // 存在匹配上的
-                .any(Boolean::booleanValue)
+                .any(apiId -> resource.getApiId().equals(apiId)))
                 .map(has -> {
                     if (has) {
                         return ResourceAccessStatus.accessSuccess();
@@ -143,9 +167,28 @@ public class ClientResourceJdbcAdapter implements ResourceAdapter<ClientApiResou
      * @param appKey 客户端 client id
      */
     public Flux<String> loadClientApiId(String appKey) {
+        return loadClientApiId(appKey, null);
+    }
+
+    /**
+     * 查询客户端拥有的api
+     *
+     * @param appKey   客户端 client id
+     * @param resource 当前请求的资源 , 用于记录事件的服务名和路径 , 预热时为 null
+     */
+    private Flux<String> loadClientApiId(String appKey, ClientApiResource resource) {
         List<String> apiList = Optional.ofNullable(appkeyResourceCache.getIfPresent(appKey)).orElseGet(() -> {
             String sql = "select api_id from open_api_grant_rel where app_key= ?";
-            List<String> result = jdbcTemplate.queryForList(sql, new Object[]{appKey}, String.class);
+            List<String> result;
+            GatewayEvent event = GatewayEvents.begin(Type.JDBC_LOOKUP);
+            String outcome = "error";
+            try {
+                result = jdbcTemplate.queryForList(sql, new Object[]{appKey}, String.class);
+                outcome = result.isEmpty() ? "empty" : "success";
+            } finally {
+                event.end(resource != null ? resource.getServiceName() : null,
+                        resource != null ? resource.getResourceName() : null, outcome);
+            }
             if (result.isEmpty()) {
                 throw new GatewayException(GatewayCode.API_NOT_EXIST);
             }
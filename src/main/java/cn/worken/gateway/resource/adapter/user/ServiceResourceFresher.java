@@ -1,5 +1,6 @@
 package cn.worken.gateway.resource.adapter.user;
 
+import cn.worken.gateway.cache.CacheRegistry;
 import cn.worken.gateway.resource.ResourceControl;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
@@ -35,13 +36,15 @@ public class ServiceResourceFresher implements ApplicationListener<HeartbeatEven
     private final ResourceControl resourceControl;
 
     public ServiceResourceFresher(RestTemplate restTemplate, DiscoveryClient discoveryClient,
-        UserApiResourceMapping updateServiceApiMapping, ResourceControl resourceControl) {
+        UserApiResourceMapping updateServiceApiMapping, ResourceControl resourceControl, CacheRegistry cacheRegistry) {
         this.restTemplate = restTemplate;
         this.discoveryClient = discoveryClient;
         this.updateServiceApiMapping = updateServiceApiMapping;
         this.resourceControl = resourceControl;
-        this.serviceInstanceCache = CacheBuilder.newBuilder().build();
-        this.successLoadServiceCache = CacheBuilder.newBuilder().build();
+        this.serviceInstanceCache = cacheRegistry.register("serviceInstance",
+            CacheBuilder.newBuilder().recordStats().build());
+        this.successLoadServiceCache = cacheRegistry.register("successLoadService",
+            CacheBuilder.newBuilder().recordStats().build());
     }
 
 
@@ -1,7 +1,11 @@
 package cn.worken.gateway.resource.adapter.user;
 
+import cn.worken.gateway.cache.CacheRegistry;
+import cn.worken.gateway.resource.ResourceChangedEvent;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -12,11 +16,12 @@ import java.util.regex.Pattern;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.MutablePair;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import org.springframework.util.AntPathMatcher;
 
 /**
- * TODO 修改缓存方式
+ * 服务接口与权限编码映射
  *
  * @author shaoyijong
  * @version 1.0
@@ -28,6 +33,13 @@ public class UserApiResourceMapping {
     private static final Pattern REST_URI_PATTERN = Pattern.compile("\\{\\S*}");
     private final Map<String, String> serviceVersionCache = new ConcurrentHashMap<>();
     private final Map<String, ServiceResource> serviceResourceMap = new ConcurrentHashMap<>();
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheRegistry cacheRegistry;
+
+    public UserApiResourceMapping(ApplicationEventPublisher eventPublisher, CacheRegistry cacheRegistry) {
+        this.eventPublisher = eventPublisher;
+        this.cacheRegistry = cacheRegistry;
+    }
 
 
     public UserApiResource getUserApiResource(String serviceId, String uri) {
@@ -54,9 +66,13 @@ public class UserApiResourceMapping {
         JSONObject apiSecurityCodeMapping = JSON.parseObject(content);
         if (apiSecurityCodeMapping.isEmpty()) {
             serviceResourceMap.remove(serviceName);
+            cacheRegistry.unregister(cacheName(serviceName));
+            eventPublisher.publishEvent(new ResourceChangedEvent(serviceName));
             return;
         }
-        ServiceResource resource = new ServiceResource(serviceName);
+        // 每个版本使用新的缓存 , 同名注册替换上一个版本 , 旧版本的请求不会写入新版本的缓存
+        ServiceResource resource = new ServiceResource(serviceName, cacheRegistry.register(cacheName(serviceName),
+            CacheBuilder.newBuilder().maximumSize(10000).recordStats().build()));
         // key 该服务对应的接口名 code 该服务接口对应的权限编码
         for (String key : apiSecurityCodeMapping.keySet()) {
             String code = apiSecurityCodeMapping.getString(key);
@@ -70,6 +86,11 @@ public class UserApiResourceMapping {
         }
 
         serviceResourceMap.put(serviceName, resource);
+        eventPublisher.publishEvent(new ResourceChangedEvent(serviceName));
+    }
+
+    private static String cacheName(String serviceName) {
+        return "userApiResource:" + serviceName;
     }
 
     private static class ServiceResource {
@@ -78,10 +99,11 @@ public class UserApiResourceMapping {
         private final String name;
         private Map<String, String> apiCodeMapping;
         private Map<String, MutablePair<String, String>> uriPatternCodeMapping;
-        private final Map<String, UserApiResource> cache = new ConcurrentHashMap<>();
+        private final Cache<String, UserApiResource> cache;
 
-        public ServiceResource(String name) {
+        public ServiceResource(String name, Cache<String, UserApiResource> cache) {
             this.name = name;
+            this.cache = cache;
         }
 
         public void addApi(String uri, String code) {
@@ -117,7 +139,11 @@ public class UserApiResourceMapping {
         }
 
         private UserApiResource getResource(String res, String code) {
-            return cache.computeIfAbsent(res, k -> {
+            UserApiResource cached = cache.getIfPresent(res);
+            if (cached != null) {
+                return cached;
+            }
+            return cache.asMap().computeIfAbsent(res, k -> {
                 UserApiResource apiResource = new UserApiResource();
                 apiResource.setApiId(code);
                 apiResource.setResourceName(res);
@@ -2,6 +2,9 @@ package cn.worken.gateway.resource.adapter.user;
 
 import cn.worken.gateway.config.constant.GatewayCode;
 import cn.worken.gateway.dto.GatewayAuthenticationInfo;
+import cn.worken.gateway.jfr.GatewayEvent;
+import cn.worken.gateway.jfr.GatewayEvents;
+import cn.worken.gateway.jfr.GatewayEvents.Type;
 import cn.worken.gateway.resource.ResourceAccessStatus;
 import cn.worken.gateway.resource.ResourceAdapter;
 import com.google.common.base.Strings;
@@ -56,7 +59,7 @@ public class UserResourceAdapter implements ResourceAdapter<UserApiResource> {
             // 如果接口没有做限制 , 通过接口路径找不到对应的 CODE
             if (r == null || Strings.isNullOrEmpty(r.getApiId())) {
                 return ResourceAccessStatus.accessSuccess();
-            } else if (remoteCheckApiAccess(authenticationInfo.getUserId(), r.getApiId(), r.getResourceName())) {
+            } else if (remoteCheckApiAccess(authenticationInfo.getUserId(), r)) {
                 // 接口做限制 , 通过接口路径能够找到对应的 CODE , 并且缓存中该用户有该 CODE
                 return ResourceAccessStatus.accessSuccess();
             } else {
@@ -71,13 +74,21 @@ public class UserResourceAdapter implements ResourceAdapter<UserApiResource> {
      * 判断用户资源是否匹配 TODO 用 redis 的 reactor api 调用
      *
      * @param uid 用户id
-     * @param apiId 资源id
+     * @param resource 请求资源
      * @return 匹配
      */
-    private boolean remoteCheckApiAccess(String uid, String apiId, String resourceName) {
-        log.info("资源校验 , 用户id [{}] , 请求资源 [{}] , 请求接口 [{}]", uid, apiId, resourceName);
-        // 判断缓存中是否有该用户的 CODE
-        BoundSetOperations<String, String> ops = stringRedisTemplate.boundSetOps(redisResPrefix + uid);
-        return Optional.ofNullable(ops.isMember(apiId)).orElse(Boolean.FALSE);
+    private boolean remoteCheckApiAccess(String uid, UserApiResource resource) {
+        log.info("资源校验 , 用户id [{}] , 请求资源 [{}] , 请求接口 [{}]", uid, resource.getApiId(),
+            resource.getResourceName());
+        GatewayEvent event = GatewayEvents.begin(Type.REDIS_PERMISSION);
+        boolean member = false;
+        try {
+            // 判断缓存中是否有该用户的 CODE
+            BoundSetOperations<String, String> ops = stringRedisTemplate.boundSetOps(redisResPrefix + uid);
+            member = Optional.ofNullable(ops.isMember(resource.getApiId())).orElse(Boolean.FALSE);
+        } finally {
+            event.end(resource.getServiceName(), resource.getResourceName(), member ? "allow" : "deny");
+        }
+        return member;
     }
 }
@@ -2,6 +2,8 @@ package cn.worken.gateway.resource.manage;
 
 
 import cn.worken.gateway.config.constant.ReqContextConstant;
+import cn.worken.gateway.metrics.RequestTimeline;
+import cn.worken.gateway.metrics.RequestTimeline.Phase;
 import cn.worken.gateway.resource.ResourceControl;
 import cn.worken.gateway.util.GatewayUtils;
 import javax.annotation.Resource;
@@ -28,7 +30,9 @@ public class WhiteListServerWebExchangeMatcher implements ServerWebExchangeMatch
     @Override
     public Mono<MatchResult> matches(ServerWebExchange exchange) {
         String path = GatewayUtils.getRawPath(exchange);
-        if (testWhitelist(path)) {
+        boolean whitelist = testWhitelist(path);
+        RequestTimeline.mark(exchange, Phase.WHITELIST);
+        if (whitelist) {
             // 向 attribute 中放入是否为白名单信息 , 方便后续调用
             exchange.getAttributes().put(ReqContextConstant.IS_WHITE_API, true);
             return MatchResult.match();
@@ -0,0 +1,112 @@
+package cn.worken.gateway.shed;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.HttpResources;
+
+/**
+ * 事件循环延迟及 cpu 监控
+ * <p>
+ * 定时向每个 netty 事件循环提交空任务 , 任务开始执行与提交的时间差即为排队延迟 ; 上一轮任务仍未执行时延迟至少为探测间隔 .
+ * 根据延迟及 cpu 计算负载 , 1 表示达到阈值
+ */
+@Slf4j
+@Component
+public class EventLoopLagMonitor {
+
+    private final LoadSheddingProperties properties;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "event-loop-lag-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong maxLag = new AtomicLong();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+    private long lastProbe;
+    private volatile long lagNanos;
+    private volatile double cpu;
+    private volatile double pressure;
+
+    public EventLoopLagMonitor(LoadSheddingProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (properties.isEnabled()) {
+            scheduler.scheduleWithFixedDelay(this::probe, properties.getProbeIntervalMs(),
+                properties.getProbeIntervalMs(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    private void probe() {
+        try {
+            long now = System.nanoTime();
+            long lag = maxLag.getAndSet(0);
+            if (pending.get() > 0) {
+                lag = Math.max(lag, now - lastProbe);
+            } else {
+                // 所有事件循环都已执行上一轮任务 , 开始新一轮探测
+                EventLoopGroup group = HttpResources.get().onServer(true);
+                lastProbe = now;
+                for (EventExecutor executor : group) {
+                    pending.incrementAndGet();
+                    long submitted = System.nanoTime();
+                    executor.execute(() -> {
+                        long delay = System.nanoTime() - submitted;
+                        maxLag.accumulateAndGet(delay, Math::max);
+                        pending.decrementAndGet();
+                    });
+                }
+            }
+            // 延迟上升立即生效 , 下降时平滑 , 避免负载在阈值附近来回抖动
+            lagNanos = lag >= lagNanos ? lag : (lagNanos + lag) / 2;
+            cpu = processCpuLoad();
+            pressure = Math.max(
+                (double) lagNanos / TimeUnit.MILLISECONDS.toNanos(properties.getLagThresholdMs()),
+                cpu / properties.getCpuThreshold());
+        } catch (Exception e) {
+            log.warn("事件循环延迟探测失败 : {}", e.getMessage());
+        }
+    }
+
+    private double processCpuLoad() {
+        if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+            double load = ((com.sun.management.OperatingSystemMXBean) osBean).getProcessCpuLoad();
+            return load < 0 ? 0 : load;
+        }
+        return 0;
+    }
+
+    public long getLagMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lagNanos);
+    }
+
+    public double getCpu() {
+        return cpu;
+    }
+
+    /**
+     * 当前负载 , 1 表示延迟或 cpu 达到阈值
+     */
+    public double getPressure() {
+        return pressure;
+    }
+}
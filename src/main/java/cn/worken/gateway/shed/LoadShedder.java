@@ -0,0 +1,40 @@
+package cn.worken.gateway.shed;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+/**
+ * 按优先级丢弃请求 , 负载在优先级阈值与阈值 + 0.5 之间时按比例丢弃 , 优先丢弃开放接口批量请求
+ */
+@Component
+public class LoadShedder {
+
+    private static final double RAMP = 0.5;
+
+    private final EventLoopLagMonitor monitor;
+    private final LongAdder shedCount = new LongAdder();
+
+    public LoadShedder(EventLoopLagMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    /**
+     * 是否丢弃当前请求
+     */
+    public boolean shouldShed(RequestPriority priority) {
+        double over = monitor.getPressure() - priority.getThreshold();
+        if (over <= 0) {
+            return false;
+        }
+        if (over < RAMP && ThreadLocalRandom.current().nextDouble() >= over / RAMP) {
+            return false;
+        }
+        shedCount.increment();
+        return true;
+    }
+
+    public long getShedCount() {
+        return shedCount.sum();
+    }
+}
@@ -0,0 +1,28 @@
+package cn.worken.gateway.shed;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 网关自身过载保护配置
+ */
+@Data
+@Component
+@ConfigurationProperties("gateway.load-shedding")
+public class LoadSheddingProperties {
+
+    private boolean enabled = false;
+    /**
+     * 事件循环延迟探测间隔
+     */
+    private long probeIntervalMs = 100;
+    /**
+     * 事件循环延迟达到该值时开始丢弃低优先级请求
+     */
+    private long lagThresholdMs = 50;
+    /**
+     * 进程 cpu 使用率达到该值时开始丢弃低优先级请求
+     */
+    private double cpuThreshold = 0.9;
+}
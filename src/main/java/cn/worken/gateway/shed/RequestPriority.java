@@ -0,0 +1,33 @@
+package cn.worken.gateway.shed;
+
+import lombok.Getter;
+
+/**
+ * 请求优先级 , 负载达到 threshold 倍阈值时开始丢弃 , 超过 threshold + 0.5 倍时全部丢弃
+ */
+@Getter
+public enum RequestPriority {
+
+    /**
+     * 白名单及健康检查 , 不丢弃
+     */
+    CRITICAL(Double.MAX_VALUE),
+    /**
+     * cookie 登陆的平台用户
+     */
+    USER(2.0),
+    /**
+     * Authorization 请求头的 client
+     */
+    CLIENT(1.5),
+    /**
+     * 开放接口批量请求 及 未携带 token 的请求
+     */
+    BULK(1.0);
+
+    private final double threshold;
+
+    RequestPriority(double threshold) {
+        this.threshold = threshold;
+    }
+}
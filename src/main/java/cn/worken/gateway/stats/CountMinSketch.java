@@ -0,0 +1,74 @@
+package cn.worken.gateway.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁 count-min sketch , 固定内存统计 key 出现次数 , 估计值只会偏大
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param depth 哈希函数个数
+     * @param width 每行计数器个数 , 向上取 2 的幂
+     */
+    public CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        int size = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.mask = size - 1;
+        this.counters = new AtomicLongArray(depth * size);
+    }
+
+    /**
+     * 计数加一
+     *
+     * @return 加一后的估计值
+     */
+    public long increment(String key) {
+        int h1 = mix(key.hashCode());
+        int h2 = mix(h1 ^ 0x9E3779B9);
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            min = Math.min(min, counters.incrementAndGet(index(i, h1, h2)));
+        }
+        return min;
+    }
+
+    /**
+     * 估计值
+     */
+    public long estimate(String key) {
+        int h1 = mix(key.hashCode());
+        int h2 = mix(h1 ^ 0x9E3779B9);
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            min = Math.min(min, counters.get(index(i, h1, h2)));
+        }
+        return min;
+    }
+
+    public void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.lazySet(i, 0);
+        }
+    }
+
+    private int index(int row, int h1, int h2) {
+        return row * (mask + 1) + ((h1 + row * h2) & mask);
+    }
+
+    /**
+     * murmur3 fmix32
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,42 @@
+package cn.worken.gateway.stats;
+
+import cn.worken.gateway.stats.HotKeys.Dimension;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * 热点 key 查询 /actuator/hotkeys/{identity|client|ip}?seconds=60&amp;k=20
+ */
+@Component
+@Endpoint(id = "hotkeys")
+public class HotKeyEndpoint {
+
+    private final HotKeys hotKeys;
+
+    public HotKeyEndpoint(HotKeys hotKeys) {
+        this.hotKeys = hotKeys;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Long>> all(@Nullable Integer seconds, @Nullable Integer k) {
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        for (Dimension dimension : Dimension.values()) {
+            result.put(dimension.name().toLowerCase(), topK(dimension, seconds, k));
+        }
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, Long> dimension(@Selector String dimension, @Nullable Integer seconds, @Nullable Integer k) {
+        return topK(Dimension.valueOf(dimension.toUpperCase()), seconds, k);
+    }
+
+    private Map<String, Long> topK(Dimension dimension, Integer seconds, Integer k) {
+        return hotKeys.topK(dimension, seconds != null ? seconds : hotKeys.getMaxWindowSeconds(), k != null ? k : 20);
+    }
+}
@@ -0,0 +1,30 @@
+package cn.worken.gateway.stats;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 热点 key 统计配置
+ */
+@Data
+@Component
+@ConfigurationProperties("gateway.hot-key")
+public class HotKeyProperties {
+
+    private boolean enabled = true;
+    /**
+     * 每个桶时长
+     */
+    private long bucketSeconds = 10;
+    /**
+     * 桶数 , 最长统计窗口为 bucketSeconds * buckets
+     */
+    private int buckets = 6;
+    private int depth = 4;
+    private int width = 2048;
+    /**
+     * 每个桶最多保留的候选 key
+     */
+    private int capacity = 256;
+}
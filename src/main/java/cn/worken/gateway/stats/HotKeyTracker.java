@@ -0,0 +1,123 @@
+package cn.worken.gateway.stats;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 滑动窗口热点 key 统计
+ * <p>
+ * 时间按 bucketMillis 分桶 , 每个桶一个 count-min sketch 及候选集合 . 请求只做 sketch 的原子加 ,
+ * 估计值超过当前候选门槛时才写入候选集合 ; 候选集合超过容量时保留较大的一半并提高门槛 . 查询时合并窗口内各桶
+ */
+public class HotKeyTracker {
+
+    private final long bucketMillis;
+    private final int capacity;
+    private final Bucket[] buckets;
+
+    public HotKeyTracker(long bucketMillis, int bucketCount, int depth, int width, int capacity) {
+        this.bucketMillis = bucketMillis;
+        this.capacity = capacity;
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket(depth, width);
+        }
+    }
+
+    public void record(String key) {
+        long epoch = System.currentTimeMillis() / bucketMillis;
+        Bucket bucket = buckets[(int) (epoch % buckets.length)];
+        if (bucket.epoch != epoch) {
+            bucket.reset(epoch);
+        }
+        long estimate = bucket.sketch.increment(key);
+        if (estimate >= bucket.threshold) {
+            bucket.offer(key, estimate);
+        }
+    }
+
+    /**
+     * 最近 windowMillis 内访问最多的 key
+     *
+     * @param windowMillis 窗口时长 , 最长为 桶时长 * 桶数
+     * @param k 返回个数
+     */
+    public Map<String, Long> topK(long windowMillis, int k) {
+        long epoch = System.currentTimeMillis() / bucketMillis;
+        long windowBuckets = Math.max(1, Math.min(buckets.length, windowMillis / bucketMillis));
+        List<Bucket> window = new ArrayList<>();
+        Set<String> keys = new HashSet<>();
+        for (Bucket bucket : buckets) {
+            if (bucket.epoch > epoch - windowBuckets && bucket.epoch <= epoch) {
+                window.add(bucket);
+                keys.addAll(bucket.candidates.keySet());
+            }
+        }
+        List<Map.Entry<String, Long>> counts = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            long count = 0;
+            for (Bucket bucket : window) {
+                count += bucket.sketch.estimate(key);
+            }
+            counts.add(new SimpleImmutableEntry<>(key, count));
+        }
+        counts.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < counts.size() && i < k; i++) {
+            result.put(counts.get(i).getKey(), counts.get(i).getValue());
+        }
+        return result;
+    }
+
+    private class Bucket {
+
+        private final CountMinSketch sketch;
+        private final Map<String, Long> candidates = new ConcurrentHashMap<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long epoch = -1;
+        private volatile long threshold = 1;
+
+        private Bucket(int depth, int width) {
+            this.sketch = new CountMinSketch(depth, width);
+        }
+
+        /**
+         * 桶过期后清空 , 清空期间的少量计数可能丢失
+         */
+        private void reset(long newEpoch) {
+            lock.lock();
+            try {
+                if (epoch != newEpoch) {
+                    sketch.clear();
+                    candidates.clear();
+                    threshold = 1;
+                    epoch = newEpoch;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void offer(String key, long estimate) {
+            candidates.put(key, estimate);
+            if (candidates.size() > capacity && lock.tryLock()) {
+                try {
+                    List<Long> values = new ArrayList<>(candidates.values());
+                    values.sort(null);
+                    long newThreshold = values.get(values.size() - capacity / 2);
+                    candidates.values().removeIf(v -> v < newThreshold);
+                    threshold = newThreshold;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
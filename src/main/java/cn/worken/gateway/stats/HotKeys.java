@@ -0,0 +1,57 @@
+package cn.worken.gateway.stats;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * 按用户标识 , client id , ip 统计热点
+ */
+@Component
+public class HotKeys {
+
+    public enum Dimension {
+        /**
+         * 用户标识 username / client_id / 开放接口 app key
+         */
+        IDENTITY,
+        /**
+         * token 中的 client_id
+         */
+        CLIENT,
+        /**
+         * 请求 ip
+         */
+        IP
+    }
+
+    private final HotKeyProperties properties;
+    private final Map<Dimension, HotKeyTracker> trackers = new EnumMap<>(Dimension.class);
+
+    public HotKeys(HotKeyProperties properties) {
+        this.properties = properties;
+        for (Dimension dimension : Dimension.values()) {
+            trackers.put(dimension, new HotKeyTracker(TimeUnit.SECONDS.toMillis(properties.getBucketSeconds()),
+                properties.getBuckets(), properties.getDepth(), properties.getWidth(), properties.getCapacity()));
+        }
+    }
+
+    public void record(Dimension dimension, String key) {
+        if (key != null) {
+            trackers.get(dimension).record(key);
+        }
+    }
+
+    public Map<String, Long> topK(Dimension dimension, long windowSeconds, int k) {
+        return trackers.get(dimension).topK(TimeUnit.SECONDS.toMillis(windowSeconds), k);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public long getMaxWindowSeconds() {
+        return properties.getBucketSeconds() * properties.getBuckets();
+    }
+}
@@ -1,7 +1,10 @@
 package cn.worken.gateway.util;
 
+import cn.worken.gateway.config.constant.ReqContextConstant;
+import java.net.InetSocketAddress;
 import java.net.URI;
 import java.util.LinkedHashSet;
+import java.util.Optional;
 import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.web.server.ServerWebExchange;
 
@@ -29,4 +32,31 @@ public class GatewayUtils {
         }
         return path;
     }
+
+    /**
+     * 获取请求的服务名 , 路由匹配前 (如鉴权) 使用原始路径的第一段 , 与服务发现路由 /服务名/** 一致
+     */
+    public static String getServiceName(ServerWebExchange exchange) {
+        String service = RouteUtils.getLbName(exchange);
+        if (service != null) {
+            return service;
+        }
+        String path = getRawPath(exchange);
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.indexOf('/', start);
+        String segment = end < 0 ? path.substring(start) : path.substring(start, end);
+        return segment.isEmpty() ? null : segment;
+    }
+
+    /**
+     * 获取客户端 ip , 由 ClientIpWebFilter 经可信代理解析 , 未解析时使用直连地址
+     */
+    public static String getIpAddress(ServerWebExchange exchange) {
+        String ip = exchange.getAttribute(ReqContextConstant.CLIENT_IP);
+        if (ip != null) {
+            return ip;
+        }
+        return Optional.ofNullable(exchange.getRequest().getRemoteAddress()).map(InetSocketAddress::getHostString)
+            .orElse("");
+    }
 }
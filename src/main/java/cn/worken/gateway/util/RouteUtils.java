@@ -1,8 +1,11 @@
 package cn.worken.gateway.util;
 
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
 import java.net.URI;
 import org.apache.commons.lang.StringUtils;
 import org.springframework.cloud.gateway.route.Route;
+import org.springframework.web.server.ServerWebExchange;
 
 /**
  * 获取路由的服务名
@@ -26,4 +29,12 @@ public class RouteUtils {
             return StringUtils.substringAfter(uri.getSchemeSpecificPart(), "//");
         }
     }
+
+    /**
+     * 获取请求对应的服务名 , 路由未匹配时返回 null
+     */
+    public static String getLbName(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        return route != null ? getLbName(route) : null;
+    }
 }
@@ -0,0 +1,363 @@
+package cn.worken.gateway;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ORIGINAL_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import cn.worken.gateway.auth.AuthenticationInfoCache;
+import cn.worken.gateway.auth.AuthorizationDecisionCache;
+import cn.worken.gateway.auth.JwtKeyProperties;
+import cn.worken.gateway.auth.JwtKeySet;
+import cn.worken.gateway.auth.KeySetReactiveJwtDecoder;
+import cn.worken.gateway.auth.SecurityConfig;
+import cn.worken.gateway.auth.TokenExtractor;
+import cn.worken.gateway.auth.TokenRevocationList;
+import cn.worken.gateway.cache.CacheRegistry;
+import cn.worken.gateway.config.constant.ReqContextConstant;
+import cn.worken.gateway.config.constant.UserConstants;
+import cn.worken.gateway.filter.AuthenticationRetrieveFilter;
+import cn.worken.gateway.filter.ClientIpWebFilter;
+import cn.worken.gateway.filter.ClusterRateLimitFilter;
+import cn.worken.gateway.filter.ConcurrencyLimitFilter;
+import cn.worken.gateway.filter.HotKeyRecordFilter;
+import cn.worken.gateway.filter.LoadSheddingWebFilter;
+import cn.worken.gateway.filter.RefreshTokenFilter;
+import cn.worken.gateway.filter.RequestTimelineWebFilter;
+import cn.worken.gateway.filter.ResourceAccessFilter;
+import cn.worken.gateway.filter.ValidateSubmitKeyFilter;
+import cn.worken.gateway.identity.IdentitySigner;
+import cn.worken.gateway.ip.ClientIpProperties;
+import cn.worken.gateway.ip.ClientIpResolver;
+import cn.worken.gateway.limit.AdaptiveConcurrencyLimiter;
+import cn.worken.gateway.limit.ClusterRateLimiter;
+import cn.worken.gateway.limit.ConcurrencyLimitProperties;
+import cn.worken.gateway.limit.OpenApiQuotas;
+import cn.worken.gateway.limit.RateLimitProperties;
+import cn.worken.gateway.metrics.SlowRequestLog;
+import cn.worken.gateway.metrics.SlowRequestProperties;
+import cn.worken.gateway.resource.OpenAPIListServerWebExchangeMatcher;
+import cn.worken.gateway.resource.RedisLock;
+import cn.worken.gateway.resource.ResourceAccessFactory;
+import cn.worken.gateway.resource.ResourceControl;
+import cn.worken.gateway.resource.ResourceControlProperties;
+import cn.worken.gateway.resource.adapter.client.ClientApiResource;
+import cn.worken.gateway.resource.adapter.client.ClientResourceJdbcAdapter;
+import cn.worken.gateway.resource.adapter.user.UserApiResourceMapping;
+import cn.worken.gateway.resource.adapter.user.UserResourceAdapter;
+import cn.worken.gateway.resource.manage.WhiteListServerWebExchangeMatcher;
+import cn.worken.gateway.shed.EventLoopLagMonitor;
+import cn.worken.gateway.shed.LoadShedder;
+import cn.worken.gateway.shed.LoadSheddingProperties;
+import cn.worken.gateway.stats.HotKeyProperties;
+import cn.worken.gateway.stats.HotKeys;
+import cn.worken.gateway.util.RSAUtils;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.BoundSetOperations;
+import org.springframework.data.redis.core.ReactiveStreamOperations;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.web.server.WebFilterChainProxy;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.handler.DefaultWebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 测试用网关过滤链 , redis 和数据库使用 mock , 转发由终端 filter 代替
+ * <p>
+ * web filter : 请求时间线 , 客户端 ip , 过载保护 , 鉴权 ; global filter : 认证信息 , 热点统计 , 集群限流 , 权限控制 , 重复提交 , 续签 ,
+ * 并发限制 . 过载保护 , 集群限流及并发限制均开启 , 未过载且 redis 总是授予令牌时全部放行 .
+ * <p>
+ * 不包含 sentinel : 规则和统计节点是 jvm 全局状态 , 第一次调用时读取本地配置文件并启动统计线程 , 结果受用例执行顺序影响
+ */
+public class GatewayChainFixture {
+
+    public static final String SERVICE = "user-service";
+    public static final String WHITELIST_PATH = "/public/ping";
+    public static final String USER_PATH_PREFIX = "/order/";
+    /**
+     * 普通 client 接口
+     */
+    public static final String CLIENT_PATH = "/open/goods/list";
+    /**
+     * 开放接口 , 按 app key 配额限流
+     */
+    public static final String OPEN_API_PATH = "/openapi/goods/list";
+
+    private final AtomicInteger forwarded = new AtomicInteger();
+    private final String userToken;
+    private final String clientToken;
+    private final Jwt userJwt;
+    private final Jwt clientJwt;
+    private final TokenRevocationList tokenRevocationList;
+    private final DefaultWebFilterChain chain;
+    private final DefaultWebFilterChain authenticatedChain;
+
+    @SuppressWarnings("unchecked")
+    public GatewayChainFixture() {
+        CacheRegistry cacheRegistry = new CacheRegistry(new SimpleMeterRegistry());
+        ResourceControlProperties resourceControlProperties = new ResourceControlProperties(new JdbcTemplate());
+        resourceControlProperties.setWhiteApiList(Collections.singleton("/" + SERVICE + "/public/**"));
+        resourceControlProperties.setOpenApiList(Collections.singleton("/" + SERVICE + "/openapi/**"));
+        ResourceControl resourceControl = new ResourceControl(resourceControlProperties);
+        WhiteListServerWebExchangeMatcher whiteListMatcher = new WhiteListServerWebExchangeMatcher();
+        ReflectionTestUtils.setField(whiteListMatcher, "resourceControl", resourceControl);
+        OpenAPIListServerWebExchangeMatcher openApiMatcher = new OpenAPIListServerWebExchangeMatcher(resourceControl);
+        TokenExtractor tokenExtractor = new TokenExtractor();
+
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        BoundSetOperations<String, String> setOperations = mock(BoundSetOperations.class);
+        when(redisTemplate.boundSetOps(anyString())).thenReturn(setOperations);
+        when(setOperations.isMember(any())).thenReturn(Boolean.TRUE);
+        ReactiveStringRedisTemplate reactiveRedisTemplate = reactiveRedisTemplate();
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ClientApiResource apiResource = new ClientApiResource();
+        apiResource.setApiId("1");
+        apiResource.setResourceName("/" + SERVICE + CLIENT_PATH);
+        when(jdbcTemplate.queryForObject(anyString(), any(Object[].class), any(RowMapper.class)))
+            .thenReturn(apiResource);
+        when(jdbcTemplate.queryForList(anyString(), any(Object[].class), eq(String.class)))
+            .thenReturn(Collections.singletonList("1"));
+
+        Map<String, String> keys = RSAUtils.createKeys(2048);
+        userToken = sign(keys.get("privateKey"), new JWTClaimsSet.Builder()
+            .claim(UserConstants.USER_ID, 1001)
+            .claim(UserConstants.USER_NAME, "user_1001")
+            .claim(UserConstants.CLIENT_ID, "com_client")
+            .claim(UserConstants.COM_ID, "1")
+            .claim(UserConstants.NAME, "测试用户"));
+        clientToken = sign(keys.get("privateKey"), new JWTClaimsSet.Builder()
+            .claim(UserConstants.CLIENT_ID, "client-1")
+            .claim(UserConstants.COM_ID, "1"));
+        JwtKeyProperties jwtKeyProperties = new JwtKeyProperties();
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("jwt", Collections.<String, Object>singletonMap(
+            "gateway.jwt.keys." + jwtKeyProperties.getDefaultKid(), keys.get("publicKey"))));
+        JwtKeySet jwtKeySet = new JwtKeySet(jwtKeyProperties, environment);
+        jwtKeySet.init();
+        KeySetReactiveJwtDecoder jwtDecoder = new KeySetReactiveJwtDecoder(jwtKeySet);
+        userJwt = jwtDecoder.decode(userToken).block(Duration.ofSeconds(10));
+        clientJwt = jwtDecoder.decode(clientToken).block(Duration.ofSeconds(10));
+
+        tokenRevocationList = new TokenRevocationList(redisTemplate, reactiveRedisTemplate, 100000, 100000);
+        AuthorizationDecisionCache decisionCache = new AuthorizationDecisionCache(false, 10000, 30,
+            mock(RedisMessageListenerContainer.class), cacheRegistry);
+        WebFilter security = new WebFilterChainProxy(new SecurityConfig(whiteListMatcher, tokenExtractor,
+            jwtDecoder, tokenRevocationList, decisionCache).securityWebFilterChain(ServerHttpSecurity.http()));
+
+        ClientIpProperties clientIpProperties = new ClientIpProperties();
+        clientIpProperties.setTrustedProxies(Collections.singletonList("10.0.0.0/8"));
+        ClientIpResolver clientIpResolver = new ClientIpResolver(clientIpProperties);
+        clientIpResolver.init();
+        SlowRequestProperties slowRequestProperties = new SlowRequestProperties();
+        LoadSheddingProperties loadSheddingProperties = new LoadSheddingProperties();
+        loadSheddingProperties.setEnabled(true);
+        // 不启动探测 , 负载始终为 0
+        LoadShedder loadShedder = new LoadShedder(new EventLoopLagMonitor(loadSheddingProperties));
+        List<WebFilter> webFilters = Arrays.asList(
+            new RequestTimelineWebFilter(slowRequestProperties, new SlowRequestLog(slowRequestProperties)),
+            new ClientIpWebFilter(clientIpResolver),
+            new LoadSheddingWebFilter(loadSheddingProperties, loadShedder, resourceControl, openApiMatcher,
+                tokenExtractor));
+
+        UserApiResourceMapping mapping = new UserApiResourceMapping(event -> {
+        }, cacheRegistry);
+        mapping.updateServiceApiMapping(SERVICE, "{\"/order/{id}\":\"ORDER_VIEW\"}");
+        RateLimitProperties rateLimitProperties = new RateLimitProperties();
+        rateLimitProperties.setClusterEnabled(true);
+        ConcurrencyLimitProperties concurrencyLimitProperties = new ConcurrencyLimitProperties();
+        concurrencyLimitProperties.setEnabled(true);
+        AuthenticationInfoCache authenticationInfoCache = new AuthenticationInfoCache(10000, 600,
+            new DefaultListableBeanFactory().getBeanProvider(IdentitySigner.class), cacheRegistry);
+        List<GlobalFilter> globalFilters = Arrays.asList(
+            new AuthenticationRetrieveFilter(whiteListMatcher, authenticationInfoCache, openApiMatcher),
+            new HotKeyRecordFilter(new HotKeys(new HotKeyProperties())),
+            new ClusterRateLimitFilter(new ClusterRateLimiter(reactiveRedisTemplate, rateLimitProperties,
+                cacheRegistry), rateLimitProperties, new OpenApiQuotas(jdbcTemplate, rateLimitProperties)),
+            new ResourceAccessFilter(whiteListMatcher, new ResourceAccessFactory(
+                new ClientResourceJdbcAdapter(jdbcTemplate, event -> {
+                }, cacheRegistry),
+                new UserResourceAdapter(mapping, redisTemplate)), decisionCache),
+            new ValidateSubmitKeyFilter(redisTemplate, mock(RedisLock.class)),
+            new RefreshTokenFilter(null, tokenExtractor),
+            new ConcurrencyLimitFilter(new AdaptiveConcurrencyLimiter(concurrencyLimitProperties, cacheRegistry),
+                concurrencyLimitProperties),
+            new ForwardStubFilter());
+        FilteringWebHandler handler = new FilteringWebHandler(globalFilters);
+        List<WebFilter> securedWebFilters = new ArrayList<>(webFilters);
+        securedWebFilters.add(security);
+        chain = new DefaultWebFilterChain(handler, securedWebFilters);
+        authenticatedChain = new DefaultWebFilterChain(handler, webFilters);
+    }
+
+    /**
+     * 集群限流每次授予大量令牌 , 注销写入直接成功 , 注销状态查询总是未注销
+     */
+    @SuppressWarnings("unchecked")
+    private static ReactiveStringRedisTemplate reactiveRedisTemplate() {
+        ReactiveStringRedisTemplate template = mock(ReactiveStringRedisTemplate.class);
+        when(template.execute(any(RedisScript.class), anyList(), anyList()))
+            .thenAnswer(invocation -> Flux.just(1_000_000L));
+        ReactiveValueOperations<String, String> valueOperations = mock(ReactiveValueOperations.class);
+        when(template.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.set(anyString(), anyString(), any(Duration.class))).thenReturn(Mono.just(Boolean.TRUE));
+        ReactiveStreamOperations<String, Object, Object> streamOperations = mock(ReactiveStreamOperations.class);
+        when(template.<Object, Object>opsForStream()).thenReturn(streamOperations);
+        when(streamOperations.add(anyString(), anyMap())).thenReturn(Mono.just(RecordId.of("1-0")));
+        when(streamOperations.trim(anyString(), anyLong())).thenReturn(Mono.just(0L));
+        when(template.hasKey(anyString())).thenReturn(Mono.just(Boolean.FALSE));
+        return template;
+    }
+
+    /**
+     * 经过完整过滤链 , 包括 jwt 校验
+     */
+    public Mono<Void> filter(ServerWebExchange exchange) {
+        return chain.filter(exchange);
+    }
+
+    /**
+     * 跳过鉴权 web filter , 由 {@link #authenticate} 写入鉴权结果
+     */
+    public Mono<Void> filterAuthenticated(ServerWebExchange exchange) {
+        return authenticatedChain.filter(exchange);
+    }
+
+    /**
+     * 写入与 SecurityConfig 校验成功后一致的 attribute
+     */
+    public static void authenticate(ServerWebExchange exchange, Jwt jwt) {
+        boolean isUser = jwt.getClaims().get(UserConstants.USER_NAME) != null;
+        Map<String, Object> attributes = exchange.getAttributes();
+        attributes.put(ReqContextConstant.SECURITY_INFO_IN_REQ, jwt);
+        attributes.put(ReqContextConstant.SECURITY_IS_USER, isUser);
+        Object identifies = jwt.getClaims().get(isUser ? UserConstants.USER_NAME : UserConstants.CLIENT_ID);
+        if (identifies != null) {
+            attributes.put(ReqContextConstant.X_IDENTIFIES, identifies);
+        }
+    }
+
+    /**
+     * 与转发后一致 , 请求路径已去掉服务名 , 原始路径放在 attribute 中
+     */
+    public static MockServerWebExchange exchange(String path, String token) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path)
+            .header("X-Forwarded-For", "203.0.113.7")
+            .remoteAddress(new InetSocketAddress("10.0.0.1", 40000));
+        if (token != null) {
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async().id(SERVICE).uri(URI.create("lb://" + SERVICE))
+            .predicate(e -> true).build());
+        exchange.getAttributes().put(GATEWAY_ORIGINAL_REQUEST_URL_ATTR,
+            new LinkedHashSet<>(Collections.singleton(URI.create("http://localhost/" + SERVICE + path))));
+        return exchange;
+    }
+
+    /**
+     * 已转发到终端 filter 的请求数
+     */
+    public int getForwarded() {
+        return forwarded.get();
+    }
+
+    public String getUserToken() {
+        return userToken;
+    }
+
+    public String getClientToken() {
+        return clientToken;
+    }
+
+    public Jwt getUserJwt() {
+        return userJwt;
+    }
+
+    public Jwt getClientJwt() {
+        return clientJwt;
+    }
+
+    public TokenRevocationList getTokenRevocationList() {
+        return tokenRevocationList;
+    }
+
+    private static String sign(String privateKey, JWTClaimsSet.Builder claims) {
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.RS256), claims
+            .jwtID(UUID.randomUUID().toString())
+            .claim("expires_in", TimeUnit.DAYS.toSeconds(3))
+            .expirationTime(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(3)))
+            .build());
+        try {
+            jwt.sign(new RSASSASigner(RSAUtils.getPrivateKey(privateKey)));
+        } catch (JOSEException | GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        return jwt.serialize();
+    }
+
+    /**
+     * 代替路由转发 , 直接结束请求
+     */
+    private class ForwardStubFilter implements GlobalFilter, Ordered {
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+            forwarded.incrementAndGet();
+            return exchange.getResponse().setComplete();
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package cn.worken.gateway.blocking;
+
+import static cn.worken.gateway.GatewayChainFixture.CLIENT_PATH;
+import static cn.worken.gateway.GatewayChainFixture.OPEN_API_PATH;
+import static cn.worken.gateway.GatewayChainFixture.USER_PATH_PREFIX;
+import static cn.worken.gateway.GatewayChainFixture.exchange;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cn.worken.gateway.GatewayChainFixture;
+import cn.worken.gateway.config.constant.ReqContextConstant;
+import cn.worken.gateway.controller.Logout;
+import java.io.IOException;
+import java.time.Duration;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.oauth2.jwt.Jwt;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 请求链路上不允许出现新的阻塞调用 , 已知阻塞点使用 application.yml 中 gateway.blocking-detector.allowed
+ * <p>
+ * 在 parallel 线程上执行 {@link GatewayChainFixture} 的过滤链 ; 鉴权 web filter 由 authenticate 写入相同的 attribute 代替 ,
+ * spring security 默认从 WebSession 读取上下文 , 创建 session 不属于网关代码
+ */
+public class BlockingCallDetectorTest {
+
+    private GatewayChainFixture fixture;
+
+    @BeforeClass
+    public static void install() throws IOException {
+        StandardEnvironment environment = new StandardEnvironment();
+        for (PropertySource<?> source : new YamlPropertySourceLoader()
+            .load("application", new ClassPathResource("application.yml"))) {
+            environment.getPropertySources().addLast(source);
+        }
+        BlockingDetectorProperties properties = Binder.get(environment)
+            .bind("gateway.blocking-detector", BlockingDetectorProperties.class)
+            .orElseGet(BlockingDetectorProperties::new);
+        BlockingCallDetector.install(properties.getAllowed());
+    }
+
+    @Before
+    public void setUp() {
+        fixture = new GatewayChainFixture();
+        BlockingCallDetector.reset();
+    }
+
+    /**
+     * 确认检测生效 , 否则下面的用例没有意义
+     */
+    @Test
+    public void detectsBlockingCallOnNonBlockingThread() {
+        Mono.fromCallable(() -> {
+            Thread.sleep(1);
+            return 1;
+        }).subscribeOn(Schedulers.parallel()).block(Duration.ofSeconds(10));
+        assertTrue(BlockingCallDetector.counts().keySet().stream().anyMatch(key -> key.contains("sleep")));
+    }
+
+    @Test
+    public void userRequestPathDoesNotBlock() {
+        assertForwardedWithoutBlocking(USER_PATH_PREFIX + 1, fixture.getUserJwt());
+    }
+
+    @Test
+    public void clientRequestPathDoesNotBlock() {
+        assertForwardedWithoutBlocking(CLIENT_PATH, fixture.getClientJwt());
+    }
+
+    /**
+     * 开放接口按 app key 配额经过集群限流
+     */
+    @Test
+    public void openApiRequestPathDoesNotBlock() {
+        assertForwardedWithoutBlocking(OPEN_API_PATH, fixture.getClientJwt());
+    }
+
+    @Test
+    public void logoutDoesNotBlock() {
+        Jwt jwt = fixture.getUserJwt();
+        MockServerWebExchange exchange = exchange("/actuator/logout", fixture.getUserToken());
+        exchange.getAttributes().put(ReqContextConstant.SECURITY_INFO_IN_REQ, jwt);
+        String result = Mono.defer(() -> new Logout(fixture.getTokenRevocationList()).logout(exchange))
+            .subscribeOn(Schedulers.parallel()).block(Duration.ofSeconds(10));
+
+        assertEquals("success", result);
+        assertNoBlockingCalls();
+        // 写入成功后本地立即生效
+        assertTrue(fixture.getTokenRevocationList().check(jwt).map(checked -> false)
+            .onErrorReturn(true).block(Duration.ofSeconds(10)));
+    }
+
+    private void assertForwardedWithoutBlocking(String path, Jwt jwt) {
+        int forwarded = fixture.getForwarded();
+        MockServerWebExchange exchange = exchange(path, jwt.getTokenValue());
+        Mono.defer(() -> {
+            GatewayChainFixture.authenticate(exchange, jwt);
+            return fixture.filterAuthenticated(exchange);
+        }).subscribeOn(Schedulers.parallel()).block(Duration.ofSeconds(10));
+
+        assertEquals("请求没有转发 : " + path, forwarded + 1, fixture.getForwarded());
+        assertNoBlockingCalls();
+    }
+
+    private static void assertNoBlockingCalls() {
+        assertTrue("请求链路出现新的阻塞调用 : " + BlockingCallDetector.stackTraces(),
+            BlockingCallDetector.counts().isEmpty());
+    }
+}
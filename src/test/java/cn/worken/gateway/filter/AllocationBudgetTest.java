@@ -0,0 +1,105 @@
+package cn.worken.gateway.filter;
+
+import static cn.worken.gateway.GatewayChainFixture.CLIENT_PATH;
+import static cn.worken.gateway.GatewayChainFixture.OPEN_API_PATH;
+import static cn.worken.gateway.GatewayChainFixture.USER_PATH_PREFIX;
+import static cn.worken.gateway.GatewayChainFixture.WHITELIST_PATH;
+import static cn.worken.gateway.GatewayChainFixture.exchange;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cn.worken.gateway.GatewayChainFixture;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.IntFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+/**
+ * 每个请求在网关过滤链上的内存分配预算 , 超过 allocation-budget.properties 中的预算时失败
+ * <p>
+ * 在当前线程上执行 {@link GatewayChainFixture} 的完整过滤链 (不包含 sentinel , 原因见 GatewayChainFixture) ;
+ * 缓存预热后统计当前线程分配的字节数 , 预算可以通过 -Dallocation.budget.{whitelist|user|client} 临时覆盖 ,
+ * 开放接口与 client 使用同一预算
+ */
+@Slf4j
+public class AllocationBudgetTest {
+
+    private static final int WARMUP = 5000;
+    private static final int REQUESTS = 2000;
+
+    private static com.sun.management.ThreadMXBean threadMXBean;
+    private static Properties budgets;
+    private static GatewayChainFixture fixture;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue("当前 jvm 不支持线程内存分配统计", bean instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported());
+        threadMXBean = (com.sun.management.ThreadMXBean) bean;
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        budgets = PropertiesLoaderUtils.loadProperties(new ClassPathResource("allocation-budget.properties"));
+        fixture = new GatewayChainFixture();
+    }
+
+    @Test
+    public void whitelistRequestWithinBudget() {
+        assertWithinBudget("whitelist", i -> exchange(WHITELIST_PATH, null));
+    }
+
+    @Test
+    public void userRequestWithinBudget() {
+        assertWithinBudget("user", i -> exchange(USER_PATH_PREFIX + i, fixture.getUserToken()));
+    }
+
+    @Test
+    public void clientRequestWithinBudget() {
+        assertWithinBudget("client", i -> exchange(CLIENT_PATH, fixture.getClientToken()));
+    }
+
+    @Test
+    public void openApiRequestWithinBudget() {
+        assertWithinBudget("client", i -> exchange(OPEN_API_PATH, fixture.getClientToken()));
+    }
+
+    private void assertWithinBudget(String type, IntFunction<MockServerWebExchange> exchanges) {
+        run(exchanges, WARMUP);
+        long budget = Long.getLong("allocation.budget." + type,
+            Long.parseLong(budgets.getProperty(type).trim()));
+        long perRequest = run(exchanges, REQUESTS) / REQUESTS;
+        log.info("allocation budget {} : {} bytes/request (budget {})", type, perRequest, budget);
+        assertTrue(String.format("%s 请求平均分配 %d 字节 , 超过预算 %d 字节", type, perRequest, budget),
+            perRequest <= budget);
+    }
+
+    /**
+     * 请求上下文在统计前创建 , 只统计过滤链本身的分配
+     *
+     * @return 当前线程分配的字节数
+     */
+    private long run(IntFunction<MockServerWebExchange> exchanges, int requests) {
+        List<MockServerWebExchange> batch = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            batch.add(exchanges.apply(i));
+        }
+        int forwarded = fixture.getForwarded();
+        long threadId = Thread.currentThread().getId();
+        long start = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (MockServerWebExchange exchange : batch) {
+            fixture.filter(exchange).block(Duration.ofSeconds(10));
+        }
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - start;
+        assertEquals("请求没有全部转发", requests, fixture.getForwarded() - forwarded);
+        return allocated;
+    }
+}
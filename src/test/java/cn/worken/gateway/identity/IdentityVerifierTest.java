@@ -0,0 +1,223 @@
+package cn.worken.gateway.identity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class IdentityVerifierTest {
+
+    private static final long NOW = 1_700_000_000L;
+    private static final byte[] SECRET = "identity-secret-1".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NEXT_SECRET = "identity-secret-2".getBytes(StandardCharsets.UTF_8);
+
+    private final IdentitySigner signer = new IdentitySigner(1, SECRET);
+    private final IdentityVerifier verifier = new IdentityVerifier(Collections.singletonMap(1, SECRET));
+
+    @Test
+    public void roundTrip() {
+        IdentityClaims claims = new IdentityClaims()
+            .setUserId("10001")
+            .setUsername("zhangsan")
+            .setComId("20001")
+            .setClientId("web")
+            .setUserType("1")
+            .setName("5byg5LiJ")
+            .setServer("user-service")
+            .setLoginType("password")
+            .setProductId(30001L)
+            .setConfProductCode("产品")
+            .setExpiresAt(NOW + 60);
+
+        IdentityClaims verified = verifier.verify(signer.sign(claims), NOW);
+
+        assertEquals("10001", verified.getUserId());
+        assertEquals("zhangsan", verified.getUsername());
+        assertEquals("20001", verified.getComId());
+        assertEquals("web", verified.getClientId());
+        assertEquals("1", verified.getUserType());
+        assertEquals("5byg5LiJ", verified.getName());
+        assertEquals("user-service", verified.getServer());
+        assertEquals("password", verified.getLoginType());
+        assertEquals(Long.valueOf(30001L), verified.getProductId());
+        assertEquals("产品", verified.getConfProductCode());
+        assertEquals(NOW + 60, verified.getExpiresAt());
+    }
+
+    /**
+     * null 与空字符串需要区分
+     */
+    @Test
+    public void roundTripNullAndEmptyFields() {
+        IdentityClaims claims = new IdentityClaims().setClientId("app").setUserId("").setExpiresAt(NOW);
+
+        IdentityClaims verified = verifier.verify(signer.sign(claims), NOW);
+
+        assertEquals("app", verified.getClientId());
+        assertEquals("", verified.getUserId());
+        assertNull(verified.getUsername());
+        assertNull(verified.getProductId());
+    }
+
+    /**
+     * 轮换期间新旧密钥同时生效
+     */
+    @Test
+    public void verifiesWithRotatedKeys() {
+        Map<Integer, byte[]> secrets = new HashMap<>();
+        secrets.put(1, SECRET);
+        secrets.put(2, NEXT_SECRET);
+        IdentityVerifier rotating = new IdentityVerifier(secrets);
+        IdentityClaims claims = new IdentityClaims().setUserId("10001").setExpiresAt(NOW + 60);
+
+        assertEquals("10001", rotating.verify(signer.sign(claims), NOW).getUserId());
+        assertEquals("10001", rotating.verify(new IdentitySigner(2, NEXT_SECRET).sign(claims), NOW).getUserId());
+    }
+
+    @Test
+    public void rejectsTamperedPayload() {
+        byte[] data = decode(signer.sign(new IdentityClaims().setUserId("10001").setExpiresAt(NOW + 60)));
+        // userId 最后一个字节
+        data[data.length - IdentityFormat.MAC_LENGTH - 10] ^= 1;
+        assertRejected(verifier, encode(data), "身份头签名错误");
+    }
+
+    @Test
+    public void rejectsTamperedMac() {
+        byte[] data = decode(signer.sign(new IdentityClaims().setUserId("10001").setExpiresAt(NOW + 60)));
+        data[data.length - 1] ^= 1;
+        assertRejected(verifier, encode(data), "身份头签名错误");
+    }
+
+    @Test
+    public void rejectsOtherSecret() {
+        String header = new IdentitySigner(1, NEXT_SECRET)
+            .sign(new IdentityClaims().setUserId("10001").setExpiresAt(NOW + 60));
+        assertRejected(verifier, header, "身份头签名错误");
+    }
+
+    @Test
+    public void rejectsUnknownKeyId() {
+        String header = new IdentitySigner(2, SECRET).sign(new IdentityClaims().setUserId("10001").setExpiresAt(NOW + 60));
+        assertRejected(verifier, header, "未知的密钥编号 2");
+    }
+
+    @Test
+    public void rejectsExpired() {
+        String header = signer.sign(new IdentityClaims().setUserId("10001").setExpiresAt(NOW));
+        assertEquals("10001", verifier.verify(header, NOW).getUserId());
+        try {
+            verifier.verify(header, NOW + 1);
+            fail("过期的身份头通过校验");
+        } catch (IdentityVerificationException e) {
+            assertEquals("身份头已过期", e.getMessage());
+        }
+    }
+
+    /**
+     * 任意长度截断都只能抛出校验异常
+     */
+    @Test
+    public void rejectsTruncatedInput() {
+        String header = signer.sign(new IdentityClaims().setUserId("10001").setName("name").setExpiresAt(NOW + 60));
+        for (int length = 0; length < header.length(); length++) {
+            assertRejected(verifier, header.substring(0, length), null);
+        }
+    }
+
+    @Test
+    public void rejectsMalformedInput() {
+        assertRejected(verifier, null, "缺少身份头");
+        assertRejected(verifier, "", "缺少身份头");
+        assertRejected(verifier, "not base64 !", "身份头格式错误");
+        byte[] data = decode(signer.sign(new IdentityClaims().setExpiresAt(NOW + 60)));
+        data[0] = IdentityFormat.VERSION + 1;
+        assertRejected(verifier, encode(data), "身份头格式错误");
+    }
+
+    /**
+     * 签名正确但内容不完整 或 有多余字节
+     */
+    @Test
+    public void rejectsSignedPayloadWithWrongLength() {
+        ByteArrayOutputStream claims = new ByteArrayOutputStream();
+        IdentityFormat.writeClaims(claims, new IdentityClaims().setUserId("10001"));
+        byte[] fields = claims.toByteArray();
+
+        ByteArrayOutputStream trailing = new ByteArrayOutputStream();
+        trailing.write(fields, 0, fields.length);
+        trailing.write(0);
+        assertRejected(verifier, signPayload(trailing.toByteArray()), "身份头格式错误");
+
+        ByteArrayOutputStream missing = new ByteArrayOutputStream();
+        missing.write(fields, 0, fields.length - 1);
+        assertRejected(verifier, signPayload(missing.toByteArray()), "身份头格式错误");
+    }
+
+    /**
+     * varint 第 5 个字节溢出后长度为负数
+     */
+    @Test
+    public void rejectsSignedPayloadWithNegativeLength() {
+        byte[] overflow = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};
+        assertRejected(verifier, signPayload(overflow), "身份头格式错误");
+        byte[] minValue = {(byte) 0x81, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x08};
+        assertRejected(verifier, signPayload(minValue), "身份头格式错误");
+    }
+
+    @Test
+    public void readerRejectsNegativeLength() {
+        byte[] data = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 'a', 'b'};
+        try {
+            new IdentityFormat.Reader(data, 0, data.length).readString();
+            fail("负数长度通过校验");
+        } catch (IdentityVerificationException e) {
+            assertEquals("身份头格式错误", e.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void signerRejectsInvalidKeyId() {
+        new IdentitySigner(256, SECRET);
+    }
+
+    /**
+     * 使用密钥 1 对任意字段内容签名
+     */
+    private static String signPayload(byte[] fields) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(IdentityFormat.VERSION);
+        out.write(1);
+        IdentityFormat.writeLong(out, NOW + 60);
+        out.write(fields, 0, fields.length);
+        byte[] signature = IdentityFormat.newMac(SECRET).doFinal(out.toByteArray());
+        out.write(signature, 0, signature.length);
+        return encode(out.toByteArray());
+    }
+
+    private static void assertRejected(IdentityVerifier verifier, String header, String message) {
+        try {
+            verifier.verify(header, NOW);
+            fail("身份头通过校验 : " + header);
+        } catch (IdentityVerificationException e) {
+            if (message != null) {
+                assertEquals(message, e.getMessage());
+            }
+        }
+    }
+
+    private static byte[] decode(String header) {
+        return Base64.getUrlDecoder().decode(header);
+    }
+
+    private static String encode(byte[] data) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(data);
+    }
+}
@@ -0,0 +1,107 @@
+package cn.worken.gateway.ip;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class CidrTreeTest {
+
+    @Test
+    public void matchesPrefix() {
+        CidrTree tree = new CidrTree();
+        tree.add("10.0.0.0/8");
+        assertTrue(tree.contains("10.0.0.1"));
+        assertTrue(tree.contains("10.255.255.255"));
+        assertFalse(tree.contains("11.0.0.1"));
+        assertFalse(tree.contains("9.255.255.255"));
+    }
+
+    @Test
+    public void zeroPrefixMatchesWholeFamily() {
+        CidrTree tree = new CidrTree();
+        tree.add("0.0.0.0/0");
+        assertTrue(tree.contains("1.2.3.4"));
+        assertTrue(tree.contains("255.255.255.255"));
+        // ipv4 与 ipv6 分开保存
+        assertFalse(tree.contains("2001:db8::1"));
+    }
+
+    @Test
+    public void fullPrefixMatchesSingleAddress() {
+        CidrTree tree = new CidrTree();
+        tree.add("192.168.1.10/32");
+        tree.add("172.16.0.1");
+        assertTrue(tree.contains("192.168.1.10"));
+        assertFalse(tree.contains("192.168.1.11"));
+        assertTrue(tree.contains("172.16.0.1"));
+        assertFalse(tree.contains("172.16.0.2"));
+    }
+
+    @Test
+    public void broaderPrefixAddedLaterCoversNarrower() {
+        CidrTree tree = new CidrTree();
+        tree.add("10.1.0.0/16");
+        tree.add("10.0.0.0/8");
+        assertTrue(tree.contains("10.1.2.3"));
+        assertTrue(tree.contains("10.200.0.1"));
+    }
+
+    @Test
+    public void matchesIpv6() {
+        CidrTree tree = new CidrTree();
+        tree.add("2001:db8::/32");
+        tree.add("fe80::1/128");
+        assertTrue(tree.contains("2001:db8:ffff::1"));
+        assertFalse(tree.contains("2001:db9::1"));
+        assertTrue(tree.contains("fe80::1"));
+        assertFalse(tree.contains("fe80::2"));
+        assertFalse(tree.contains("10.0.0.1"));
+    }
+
+    /**
+     * ipv4 映射地址按 ipv4 匹配
+     */
+    @Test
+    public void matchesIpv4MappedAddressAsIpv4() {
+        CidrTree tree = new CidrTree();
+        tree.add("10.0.0.0/8");
+        assertTrue(tree.contains("::ffff:10.1.2.3"));
+        assertFalse(tree.contains("::ffff:11.1.2.3"));
+    }
+
+    @Test
+    public void invalidInputNeverMatches() {
+        CidrTree tree = new CidrTree();
+        tree.add("0.0.0.0/0");
+        assertFalse(tree.contains((String) null));
+        assertFalse(tree.contains(""));
+        assertFalse(tree.contains("not-an-ip"));
+        // 不做域名解析
+        assertFalse(tree.contains("localhost"));
+        assertFalse(tree.contains("1.2.3"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsPrefixLongerThanAddress() {
+        new CidrTree().add("10.0.0.0/33");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativePrefix() {
+        new CidrTree().add("10.0.0.0/-1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidAddress() {
+        new CidrTree().add("10.0.0.256/8");
+    }
+
+    @Test
+    public void emptyUntilAdded() {
+        CidrTree tree = new CidrTree();
+        assertTrue(tree.isEmpty());
+        tree.add("::/0");
+        assertFalse(tree.isEmpty());
+    }
+}
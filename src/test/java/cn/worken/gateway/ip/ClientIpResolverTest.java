@@ -0,0 +1,106 @@
+package cn.worken.gateway.ip;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+public class ClientIpResolverTest {
+
+    private ClientIpResolver resolver;
+
+    @Before
+    public void setUp() {
+        ClientIpProperties properties = new ClientIpProperties();
+        properties.setTrustedProxies(Arrays.asList("10.0.0.0/8", "2001:db8::/32", "invalid-cidr"));
+        properties.setDenyList(Collections.singletonList("198.51.100.0/24"));
+        resolver = new ClientIpResolver(properties);
+        resolver.init();
+    }
+
+    @Test
+    public void usesPeerWithoutForwardedHeader() {
+        assertEquals("203.0.113.7", resolve("203.0.113.7"));
+        assertEquals("10.0.0.1", resolve("10.0.0.1"));
+    }
+
+    @Test
+    public void untrustedPeerForwardedHeaderIgnored() {
+        assertEquals("203.0.113.50", resolve("203.0.113.50", "1.2.3.4"));
+        assertEquals("203.0.113.50", resolve("203.0.113.50", "1.2.3.4, 10.0.0.2"));
+    }
+
+    @Test
+    public void firstUntrustedFromRightIsClient() {
+        assertEquals("203.0.113.7", resolve("10.0.0.1", "203.0.113.7"));
+        assertEquals("203.0.113.7", resolve("10.0.0.1", "203.0.113.7, 10.0.0.2"));
+    }
+
+    /**
+     * 客户端伪造的地址在最左侧 , 可信代理追加了真实地址
+     */
+    @Test
+    public void spoofedLeftMostEntryIgnored() {
+        assertEquals("203.0.113.7", resolve("10.0.0.1", "1.2.3.4, 203.0.113.7"));
+        assertEquals("203.0.113.7", resolve("10.0.0.1", "10.9.9.9, 203.0.113.7, 10.0.0.2"));
+    }
+
+    @Test
+    public void allTrustedUsesLeftMost() {
+        assertEquals("10.0.0.5", resolve("10.0.0.1", "10.0.0.5, 10.0.0.2"));
+    }
+
+    /**
+     * 多个请求头按顺序拼接 , 从最后一个请求头开始
+     */
+    @Test
+    public void multipleForwardedHeaders() {
+        assertEquals("203.0.113.7", resolve("10.0.0.1", "1.2.3.4", "203.0.113.7, 10.0.0.2"));
+        assertEquals("198.51.100.9", resolve("10.0.0.1", "198.51.100.9", "10.0.0.3"));
+        assertEquals("198.51.100.9", resolve("10.0.0.1", "1.2.3.4, 198.51.100.9", "", "10.0.0.3"));
+    }
+
+    /**
+     * 无法解析的地址不可信 , 使用上一个可信代理记录的地址
+     */
+    @Test
+    public void unparseableEntryStopsAtLastTrustedHop() {
+        assertEquals("10.0.0.2", resolve("10.0.0.1", "203.0.113.7, unknown, 10.0.0.2"));
+        assertEquals("10.0.0.1", resolve("10.0.0.1", "203.0.113.7, evil.example.com"));
+        assertEquals("203.0.113.7", resolve("10.0.0.1", "203.0.113.7, , 10.0.0.2"));
+    }
+
+    @Test
+    public void ipv6Proxies() {
+        assertEquals("2400:cb00:0:0:0:0:0:1", resolve("2001:db8::1", "2400:cb00::1, 2001:db8::2"));
+        assertEquals("2001:db9:0:0:0:0:0:1", resolve("2001:db9::1", "203.0.113.7"));
+    }
+
+    @Test
+    public void ipv4MappedAddressesTreatedAsIpv4() {
+        assertEquals("203.0.113.7", resolve("10.0.0.1", "::ffff:203.0.113.7, ::ffff:10.0.0.9"));
+        assertEquals("203.0.113.7", resolve("::ffff:10.0.0.1", "203.0.113.7"));
+    }
+
+    @Test
+    public void denyList() {
+        assertTrue(resolver.isDenied("198.51.100.9"));
+        assertFalse(resolver.isDenied("203.0.113.7"));
+        assertFalse(resolver.isDenied("unknown"));
+    }
+
+    private String resolve(String peer, String... forwardedFor) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/")
+            .remoteAddress(new InetSocketAddress(peer, 40000));
+        if (forwardedFor.length > 0) {
+            request.header("X-Forwarded-For", forwardedFor);
+        }
+        return resolver.resolve(request.build());
+    }
+}